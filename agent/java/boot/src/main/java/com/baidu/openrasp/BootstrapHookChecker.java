@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp;
+
+import java.io.File;
+import java.io.ObjectStreamClass;
+import java.net.SocketAddress;
+import java.net.URLConnection;
+
+/**
+ * 被 BootstrapClassLoader 加载的类中的 hook 点需要调用的检测方法
+ *
+ * 由引擎实现，启动时通过 {@link HookDispatcher#setChecker(BootstrapHookChecker)} 设置
+ * 接口中只能使用 JDK 中的类型，新增织入 JDK 类的 hook 点时需要同时在这里添加对应的方法
+ */
+public interface BootstrapHookChecker {
+
+    void checkListFiles(File file);
+
+    void checkReadFile(File file);
+
+    void checkWriteFile(File file);
+
+    void checkFileRename(File source, File dest);
+
+    void checkHttpConnection(URLConnection urlConnection);
+
+    void checkSocketHost(SocketAddress address);
+
+    void checkDeserializationClass(ObjectStreamClass objectStreamClass);
+
+    void checkCommand(byte[] command, byte[] args, byte[] envBlock);
+
+    void checkCommand(String[] command, String envBlock);
+
+    void checkSystemLoadFile(File libFile);
+
+    void checkSystemLoadPath(String libPath);
+
+    void closeCheckSystemLoad();
+
+    void checkXXE(String expandedSystemId);
+
+    void disableStaxXxeEntity(Object factory);
+
+    void disableDomXxeEntity(Object parser);
+
+    void disableSaxXxeEntity(Object factory);
+
+}
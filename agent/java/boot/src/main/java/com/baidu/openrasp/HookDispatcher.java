@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp;
+
+import java.io.File;
+import java.io.ObjectStreamClass;
+import java.net.SocketAddress;
+import java.net.URLConnection;
+
+/**
+ * 被 BootstrapClassLoader 加载的类中的 hook 点通过该类调用引擎中的检测方法
+ *
+ * 织入的代码直接调用这里与 {@link BootstrapHookChecker} 同名的静态方法，由引擎设置的实现转发到检测方法，
+ * 不需要反射，也不需要把参数装箱成数组
+ * 引擎没有启动或者已经卸载时不做任何检测，卸载时没能还原的类在引擎重新加载之后仍然调用到正确的检测方法
+ */
+public class HookDispatcher {
+
+    private static volatile BootstrapHookChecker checker;
+
+    // 引擎中的 SecurityException 类，BootstrapClassLoader 加载的类无法直接引用
+    private static volatile Class<?> securityExceptionClass;
+
+    /**
+     * 设置引擎中的检测方法实现
+     *
+     * @param hookChecker 检测方法实现
+     */
+    public static void setChecker(BootstrapHookChecker hookChecker) {
+        checker = hookChecker;
+    }
+
+    /**
+     * 设置引擎中的 SecurityException 类
+     *
+     * @param clazz SecurityException 类
+     */
+    public static void setSecurityExceptionClass(Class<?> clazz) {
+        securityExceptionClass = clazz;
+    }
+
+    /**
+     * 判断检测方法抛出的异常是否为拦截请求的 SecurityException，用于替代织入代码中的类名比较
+     *
+     * @param t 检测方法抛出的异常
+     * @return true 代表需要继续向上抛出
+     */
+    public static boolean isSecurityException(Throwable t) {
+        Class<?> clazz = securityExceptionClass;
+        return clazz != null && clazz.isInstance(t);
+    }
+
+    /**
+     * 引擎卸载时清除检测方法实现，避免持有引擎中的类
+     */
+    public static void clear() {
+        checker = null;
+        securityExceptionClass = null;
+    }
+
+    public static void checkListFiles(File file) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkListFiles(file);
+        }
+    }
+
+    public static void checkReadFile(File file) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkReadFile(file);
+        }
+    }
+
+    public static void checkWriteFile(File file) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkWriteFile(file);
+        }
+    }
+
+    public static void checkFileRename(File source, File dest) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkFileRename(source, dest);
+        }
+    }
+
+    public static void checkHttpConnection(URLConnection urlConnection) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkHttpConnection(urlConnection);
+        }
+    }
+
+    public static void checkSocketHost(SocketAddress address) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkSocketHost(address);
+        }
+    }
+
+    public static void checkDeserializationClass(ObjectStreamClass objectStreamClass) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkDeserializationClass(objectStreamClass);
+        }
+    }
+
+    public static void checkCommand(byte[] command, byte[] args, byte[] envBlock) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkCommand(command, args, envBlock);
+        }
+    }
+
+    public static void checkCommand(String[] command, String envBlock) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkCommand(command, envBlock);
+        }
+    }
+
+    public static void checkSystemLoadFile(File libFile) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkSystemLoadFile(libFile);
+        }
+    }
+
+    public static void checkSystemLoadPath(String libPath) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkSystemLoadPath(libPath);
+        }
+    }
+
+    public static void closeCheckSystemLoad() {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.closeCheckSystemLoad();
+        }
+    }
+
+    public static void checkXXE(String expandedSystemId) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.checkXXE(expandedSystemId);
+        }
+    }
+
+    public static void disableStaxXxeEntity(Object factory) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.disableStaxXxeEntity(factory);
+        }
+    }
+
+    public static void disableDomXxeEntity(Object parser) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.disableDomXxeEntity(parser);
+        }
+    }
+
+    public static void disableSaxXxeEntity(Object factory) {
+        BootstrapHookChecker current = checker;
+        if (current != null) {
+            current.disableSaxXxeEntity(factory);
+        }
+    }
+
+}
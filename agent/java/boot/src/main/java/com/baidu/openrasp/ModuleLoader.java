@@ -88,6 +88,7 @@ public class ModuleLoader {
                 System.out.println("[OpenRASP] Start to release OpenRASP");
 
                 engineContainer.release(mode);
+                HookDispatcher.clear();
 
                 engineContainer = null;
             } else {
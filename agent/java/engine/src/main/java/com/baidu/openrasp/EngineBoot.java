@@ -20,9 +20,15 @@ import com.baidu.openrasp.cloud.CloudManager;
 import com.baidu.openrasp.cloud.model.CloudCacheModel;
 import com.baidu.openrasp.cloud.utils.CloudUtils;
 import com.baidu.openrasp.config.Config;
+import com.baidu.openrasp.exceptions.SecurityException;
+import com.baidu.openrasp.hook.BootstrapHookDispatcher;
 import com.baidu.openrasp.messaging.LogConfig;
 import com.baidu.openrasp.plugin.checker.CheckerManager;
 import com.baidu.openrasp.plugin.js.JS;
+import com.baidu.openrasp.request.HttpServletRequestAccessor;
+import com.baidu.openrasp.response.HttpServletResponseAccessor;
+import com.baidu.openrasp.tool.CanonicalPathCache;
+import com.baidu.openrasp.tool.OSUtil;
 import com.baidu.openrasp.tool.cpumonitor.CpuMonitorManager;
 import com.baidu.openrasp.tool.model.BuildRASPModel;
 import com.baidu.openrasp.transformer.CustomClassTransformer;
@@ -69,6 +75,7 @@ public class EngineBoot implements Module {
             return;
         }
         CheckerManager.init();
+        OSUtil.startHostInfoRefresh();
         initTransformer(inst);
         if (CloudUtils.checkCloudControlEnter()) {
             CrashReporter.install(Config.getConfig().getCloudAddress() + "/v1/agent/crash/report",
@@ -85,6 +92,10 @@ public class EngineBoot implements Module {
     public void release(String mode) {
         CloudManager.stop();
         CpuMonitorManager.release();
+        OSUtil.stopHostInfoRefresh();
+        CanonicalPathCache.clear();
+        HttpServletRequestAccessor.clear();
+        HttpServletResponseAccessor.clear();
         if (transformer != null) {
             transformer.release();
         }
@@ -117,6 +128,8 @@ public class EngineBoot implements Module {
      * @param inst 用于管理字节码转换器
      */
     private void initTransformer(Instrumentation inst) throws UnmodifiableClassException {
+        HookDispatcher.setSecurityExceptionClass(SecurityException.class);
+        HookDispatcher.setChecker(new BootstrapHookDispatcher());
         transformer = new CustomClassTransformer(inst);
         transformer.retransform();
     }
@@ -19,7 +19,6 @@ package com.baidu.openrasp;
 import com.baidu.openrasp.cloud.model.HookWhiteModel;
 import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.exceptions.SecurityException;
-import com.baidu.openrasp.hook.xxe.XXEHook;
 import com.baidu.openrasp.messaging.ErrorType;
 import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
@@ -51,53 +50,11 @@ public class HookHandler {
     public static final Logger LOGGER = Logger.getLogger(HookHandler.class.getName());
     // 全局开关
     public static final AtomicBoolean enableHook = new AtomicBoolean(false);
-    // 当前线程开关
-    private static ThreadLocal<Boolean> enableCurrThreadHook = new ThreadLocal<Boolean>() {
+    // 当前线程的 hook 开关和请求上下文
+    private static final ThreadLocal<RaspThreadContext> threadContext = new ThreadLocal<RaspThreadContext>() {
         @Override
-        protected Boolean initialValue() {
-            return false;
-        }
-    };
-
-    public static ThreadLocal<Boolean> enableEnd = new ThreadLocal<Boolean>() {
-        @Override
-        protected Boolean initialValue() {
-            return true;
-        }
-    };
-
-    private static ThreadLocal<Boolean> tmpEnableCurrThreadHook = new ThreadLocal<Boolean>() {
-        @Override
-        protected Boolean initialValue() {
-            return false;
-        }
-    };
-
-    public static ThreadLocal<AbstractRequest> requestCache = new ThreadLocal<AbstractRequest>() {
-        @Override
-        protected AbstractRequest initialValue() {
-            return null;
-        }
-    };
-
-    public static ThreadLocal<HttpServletResponse> responseCache = new ThreadLocal<HttpServletResponse>() {
-        @Override
-        protected HttpServletResponse initialValue() {
-            return null;
-        }
-    };
-
-    public static ThreadLocal<Boolean> enableXssHook = new ThreadLocal<Boolean>() {
-        @Override
-        protected Boolean initialValue() {
-            return true;
-        }
-    };
-
-    public static ThreadLocal<Boolean> enableCmdHook = new ThreadLocal<Boolean>() {
-        @Override
-        protected Boolean initialValue() {
-            return true;
+        protected RaspThreadContext initialValue() {
+            return new RaspThreadContext();
         }
     };
 
@@ -107,39 +64,87 @@ public class HookHandler {
      * 用于关闭当前的线程的hook点
      */
     public static void disableCurrThreadHook() {
-        enableCurrThreadHook.set(false);
+        threadContext.get().setEnableHook(false);
     }
 
     /**
      * 用于开启当前线程的hook点
      */
     public static void enableCurrThreadHook() {
-        enableCurrThreadHook.set(true);
+        threadContext.get().setEnableHook(true);
     }
 
     public static boolean isEnableCurrThreadHook() {
-        return enableCurrThreadHook.get();
+        return threadContext.get().isEnableHook();
+    }
+
+    /**
+     * 获取当前线程的 RASP 上下文
+     *
+     * @return 当前线程的上下文
+     */
+    public static RaspThreadContext getThreadContext() {
+        return threadContext.get();
+    }
+
+    /**
+     * 获取当前线程正在处理的请求
+     *
+     * @return 请求实体，不在请求线程中返回 null
+     */
+    public static AbstractRequest getRequestCache() {
+        return threadContext.get().getRequest();
+    }
+
+    /**
+     * 获取当前线程正在处理的响应
+     *
+     * @return 响应实体，不在请求线程中返回 null
+     */
+    public static HttpServletResponse getResponseCache() {
+        return threadContext.get().getResponse();
+    }
+
+    /**
+     * 用于关闭命令执行的hook点
+     */
+    public static void disableCmdHook() {
+        threadContext.get().setEnableCmdHook(false);
+    }
+
+    /**
+     * 用于开启命令执行的hook点
+     */
+    public static void enableCmdHook() {
+        threadContext.get().setEnableCmdHook(true);
+    }
+
+    /**
+     * 用于判断命令执行的hook点状态
+     */
+    public static boolean isEnableCmdHook() {
+        return threadContext.get().isEnableCmdHook();
     }
 
     /**
      * 用于关闭xss的hook点
      */
     public static void disableBodyXssHook() {
-        enableXssHook.set(false);
+        threadContext.get().setEnableXssHook(false);
     }
 
     /**
      * 用于开启xss的hook点
      */
     public static void enableBodyXssHook() {
-        enableXssHook.set(true);
+        threadContext.get().setEnableXssHook(true);
     }
 
     /**
      * 用于判断xss的hook点状态
      */
     public static boolean isEnableXssHook() {
-        return enableXssHook.get();
+        return threadContext.get().isEnableXssHook();
     }
 
     /**
@@ -158,16 +163,18 @@ public class HookHandler {
      * 进入需要屏蔽hook的方法关闭开关
      */
     public static void preShieldHook() {
-        tmpEnableCurrThreadHook.set(enableCurrThreadHook.get());
-        disableCurrThreadHook();
+        RaspThreadContext context = threadContext.get();
+        context.setTmpEnableHook(context.isEnableHook());
+        context.setEnableHook(false);
     }
 
     /**
      * 退出需要屏蔽hook的方法打开开关
      */
     public static void postShieldHook() {
-        if (tmpEnableCurrThreadHook.get()) {
-            enableCurrThreadHook();
+        RaspThreadContext context = threadContext.get();
+        if (context.isTmpEnableHook()) {
+            context.setEnableHook(true);
         }
     }
 
@@ -179,21 +186,24 @@ public class HookHandler {
      * @param response 响应实体
      */
     public static void checkRequest(Object servlet, Object request, Object response) {
-        if (servlet != null && request != null && !enableCurrThreadHook.get()
-                && CustomClassTransformer.isNecessaryHookComplete) {
+        if (servlet == null || request == null || !CustomClassTransformer.isNecessaryHookComplete) {
+            return;
+        }
+        RaspThreadContext context = threadContext.get();
+        if (!context.isEnableHook()) {
             // 默认是关闭hook的，只有处理过HTTP request的线程才打开
-            enableEnd.set(true);
-            enableCurrThreadHook.set(true);
+            context.setEnableEnd(true);
+            context.setEnableHook(true);
             //新的请求开启body xss hook点
-            enableBodyXssHook();
+            context.setEnableXssHook(true);
             HttpServletRequest requestContainer = new HttpServletRequest(request);
             HttpServletResponse responseContainer = new HttpServletResponse(response);
             responseContainer.setHeader(REQUEST_ID_HEADER_KEY, requestContainer.getRequestId());
             //设置响应的用户自定义头部
             setUserDefinedResponseHeader(responseContainer);
-            requestCache.set(requestContainer);
-            responseCache.set(responseContainer);
-            XXEHook.resetLocalExpandedSystemIds();
+            context.setRequest(requestContainer);
+            context.setResponse(responseContainer);
+            context.resetExpandedSystemIds();
             doCheck(CheckParameter.Type.REQUEST, EMPTY_MAP);
         }
     }
@@ -204,13 +214,17 @@ public class HookHandler {
      * @param request 请求实体
      */
     public static void checkDubboRequest(Object request) {
-        if (request != null && !enableCurrThreadHook.get() && CustomClassTransformer.isDubboNecessaryHookComplete) {
-            enableCurrThreadHook.set(true);
+        if (request == null || !CustomClassTransformer.isDubboNecessaryHookComplete) {
+            return;
+        }
+        RaspThreadContext context = threadContext.get();
+        if (!context.isEnableHook()) {
+            context.setEnableHook(true);
             //新的请求开启body xss hook点
-            enableBodyXssHook();
+            context.setEnableXssHook(true);
             DubboRequest requestContainer = new DubboRequest(request);
-            requestCache.set(requestContainer);
-            XXEHook.resetLocalExpandedSystemIds();
+            context.setRequest(requestContainer);
+            context.resetExpandedSystemIds();
             doCheck(CheckParameter.Type.REQUEST, EMPTY_MAP);
         }
     }
@@ -220,8 +234,13 @@ public class HookHandler {
      * 请求结束后不可以在进入任何hook点
      */
     public static void onServiceExit() {
-        enableCurrThreadHook.set(false);
-        requestCache.set(null);
+        RaspThreadContext context = threadContext.get();
+        context.setEnableHook(false);
+        AbstractRequest request = context.getRequest();
+        if (request != null) {
+            request.releaseBodyBuffer();
+        }
+        context.setRequest(null);
     }
 
     /**
@@ -229,8 +248,13 @@ public class HookHandler {
      * 请求结束后不可以在进入任何hook点
      */
     public static void onDubboExit() {
-        enableCurrThreadHook.set(false);
-        requestCache.set(null);
+        RaspThreadContext context = threadContext.get();
+        context.setEnableHook(false);
+        AbstractRequest request = context.getRequest();
+        if (request != null) {
+            request.releaseBodyBuffer();
+        }
+        context.setRequest(null);
     }
 
     /**
@@ -255,7 +279,7 @@ public class HookHandler {
     }
 
     public static void onParseParameters() {
-        AbstractRequest request = requestCache.get();
+        AbstractRequest request = threadContext.get().getRequest();
         if (request != null) {
             request.setCanGetParameter(true);
         }
@@ -263,8 +287,9 @@ public class HookHandler {
 
     private static void handleBlock(CheckParameter parameter) {
         SecurityException securityException = new SecurityException("Request blocked by OpenRASP");
-        if (responseCache.get() != null) {
-            responseCache.get().sendError(parameter);
+        HttpServletResponse response = threadContext.get().getResponse();
+        if (response != null) {
+            response.sendError(parameter);
         }
         throw securityException;
     }
@@ -290,6 +315,10 @@ public class HookHandler {
      * @param params 检测参数map，key为参数名，value为检测参数值
      */
     public static void doRealCheckWithoutRequest(CheckParameter.Type type, Map params) {
+        doRealCheckWithoutRequest(threadContext.get(), type, params);
+    }
+
+    private static void doRealCheckWithoutRequest(RaspThreadContext context, CheckParameter.Type type, Map params) {
         if (!enableHook.get()) {
             return;
         }
@@ -297,23 +326,24 @@ public class HookHandler {
         if (Config.getConfig().getDebugLevel() > 0) {
             a = System.currentTimeMillis();
         }
-        boolean enableHookCache = enableCurrThreadHook.get();
+        boolean enableHookCache = context.isEnableHook();
         boolean isBlock = false;
         CheckParameter parameter = new CheckParameter(type, params);
         try {
-            enableCurrThreadHook.set(false);
+            context.setEnableHook(false);
             isBlock = CheckerManager.check(type, parameter);
         } catch (Exception e) {
             LogTool.error(ErrorType.PLUGIN_ERROR,
                     "plugin check error: " + e.getClass().getName() + " because: " + e.getMessage(), e);
         } finally {
-            enableCurrThreadHook.set(enableHookCache);
+            context.setEnableHook(enableHookCache);
         }
         if (a > 0) {
             long t = System.currentTimeMillis() - a;
             String message = "type=" + type.getName() + " " + "time=" + t;
-            if (requestCache.get() != null) {
-                LOGGER.info("request_id=" + requestCache.get().getRequestId() + " " + message);
+            AbstractRequest request = context.getRequest();
+            if (request != null) {
+                LOGGER.info("request_id=" + request.getRequestId() + " " + message);
             } else {
                 LOGGER.info(message);
             }
@@ -330,24 +360,48 @@ public class HookHandler {
      * @param params 检测参数map，key为参数名，value为检测参数值
      */
     public static void doCheckWithoutRequest(CheckParameter.Type type, Map params) {
+        doCheckWithoutRequest(threadContext.get(), type, params);
+    }
+
+    private static void doCheckWithoutRequest(RaspThreadContext context, CheckParameter.Type type, Map params) {
+        if (isCheckIgnored(context, type)) {
+            return;
+        }
+        doRealCheckWithoutRequest(context, type, params);
+    }
+
+    private static boolean isCheckIgnored(RaspThreadContext context, CheckParameter.Type type) {
         //当服务器的cpu使用率超过90%，禁用全部hook点
         if (Config.getConfig().getDisableHooks()) {
-            return;
+            return true;
         }
         //当云控注册成功之前，不进入任何hook点
         if (Config.getConfig().getCloudSwitch() && Config.getConfig().getHookWhiteAll()) {
-            return;
+            return true;
         }
-        if (requestCache.get() != null) {
-            StringBuffer sb = requestCache.get().getRequestURL();
+        AbstractRequest request = context.getRequest();
+        if (request != null) {
+            StringBuffer sb = request.getRequestURL();
             if (sb != null) {
                 String url = sb.substring(sb.indexOf("://") + 3);
                 if (HookWhiteModel.isContainURL(type.getCode(), url)) {
-                    return;
+                    return true;
                 }
             }
         }
-        doRealCheckWithoutRequest(type, params);
+        return false;
+    }
+
+    /**
+     * 判断当前线程中该类型的请求检测是否会执行，准备检测参数代价较高的 hook 点可以先调用该方法提前返回，
+     * 返回 true 之后可以直接调用 {@link #doRealCheckWithoutRequest(CheckParameter.Type, Map)}，避免重复匹配 hook 白名单
+     *
+     * @param type 检测类型
+     * @return true 代表 {@link #doCheck(CheckParameter.Type, Map)} 会执行检测
+     */
+    public static boolean isCheckEnabled(CheckParameter.Type type) {
+        RaspThreadContext context = threadContext.get();
+        return context.isEnableHook() && enableHook.get() && !isCheckIgnored(context, type);
     }
 
     /**
@@ -357,8 +411,9 @@ public class HookHandler {
      * @param params 检测参数map，key为参数名，value为检测参数值
      */
     public static void doCheck(CheckParameter.Type type, Map params) {
-        if (enableCurrThreadHook.get()) {
-            doCheckWithoutRequest(type, params);
+        RaspThreadContext context = threadContext.get();
+        if (context.isEnableHook()) {
+            doCheckWithoutRequest(context, type, params);
         }
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp;
+
+import com.baidu.openrasp.request.AbstractRequest;
+import com.baidu.openrasp.response.HttpServletResponse;
+
+import java.util.HashSet;
+
+/**
+ * 当前线程的 RASP 上下文，hook 点的开关和当前请求都保存在该对象中
+ * 每个线程只有一个实例，通过 {@link HookHandler#getThreadContext()} 一次 ThreadLocal 查找即可获取
+ */
+public class RaspThreadContext {
+
+    // 当前线程 hook 点开关，只有处理过 HTTP request 的线程才打开
+    private boolean enableHook = false;
+
+    // 屏蔽 hook 之前的开关状态
+    private boolean tmpEnableHook = false;
+
+    // 请求结束检测开关
+    private boolean enableEnd = true;
+
+    // body xss 检测开关
+    private boolean enableXssHook = true;
+
+    // 命令执行检测开关
+    private boolean enableCmdHook = true;
+
+    private AbstractRequest request;
+
+    private HttpServletResponse response;
+
+    // 当前请求已触发 xxe 检测的 expandedSystemIds
+    private HashSet<String> expandedSystemIds;
+
+    public boolean isEnableHook() {
+        return enableHook;
+    }
+
+    public void setEnableHook(boolean enableHook) {
+        this.enableHook = enableHook;
+    }
+
+    public boolean isTmpEnableHook() {
+        return tmpEnableHook;
+    }
+
+    public void setTmpEnableHook(boolean tmpEnableHook) {
+        this.tmpEnableHook = tmpEnableHook;
+    }
+
+    public boolean isEnableEnd() {
+        return enableEnd;
+    }
+
+    public void setEnableEnd(boolean enableEnd) {
+        this.enableEnd = enableEnd;
+    }
+
+    public boolean isEnableXssHook() {
+        return enableXssHook;
+    }
+
+    public void setEnableXssHook(boolean enableXssHook) {
+        this.enableXssHook = enableXssHook;
+    }
+
+    public boolean isEnableCmdHook() {
+        return enableCmdHook;
+    }
+
+    public void setEnableCmdHook(boolean enableCmdHook) {
+        this.enableCmdHook = enableCmdHook;
+    }
+
+    public AbstractRequest getRequest() {
+        return request;
+    }
+
+    public void setRequest(AbstractRequest request) {
+        this.request = request;
+    }
+
+    public HttpServletResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    public HashSet<String> getExpandedSystemIds() {
+        if (expandedSystemIds == null) {
+            expandedSystemIds = new HashSet<String>();
+        }
+        return expandedSystemIds;
+    }
+
+    public void resetExpandedSystemIds() {
+        if (expandedSystemIds != null) {
+            expandedSystemIds.clear();
+        }
+    }
+
+}
@@ -25,12 +25,14 @@ import com.baidu.openrasp.messaging.LogConfig;
 import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
 import com.baidu.openrasp.plugin.checker.local.ConfigurableChecker;
+import com.baidu.openrasp.plugin.js.CallSiteVerdictCache;
 import com.baidu.openrasp.tool.FileUtil;
-import com.baidu.openrasp.tool.LRUCache;
+import com.baidu.openrasp.tool.ConcurrentLRUCache;
 import com.baidu.openrasp.tool.Reflection;
 import com.baidu.openrasp.tool.cpumonitor.CpuMonitorManager;
 import com.baidu.openrasp.tool.filemonitor.FileScanListener;
 import com.baidu.openrasp.tool.filemonitor.FileScanMonitor;
+import com.baidu.openrasp.transformer.CustomClassTransformer;
 import com.fuxi.javaagent.contentobjects.jnotify.JNotifyException;
 import com.google.gson.*;
 import org.apache.commons.lang3.StringUtils;
@@ -91,7 +93,11 @@ public class Config extends FileScanListener {
         CPU_USAGE_INTERVAL("cpu.usage.interval", "5"),
         HTTPS_VERIFY_SSL("openrasp.ssl_verifypeer", "false"),
         LRU_COMPARE_ENABLE("lru.compare_enable", "false"),
-        LRU_COMPARE_LIMIT("lru.compare_limit", "10240");
+        LRU_COMPARE_LIMIT("lru.compare_limit", "10240"),
+        HOST_INFO_REFRESH_INTERVAL("hostinfo.refresh_interval", "60"),
+        SSRF_DNS_TIMEOUT_MILLIS("ssrf.dns.timeout_millis", "0"),
+        LRU_CALL_SITE_ENABLE("lru.callsite_enable", "false"),
+        LRU_CALL_SITE_DEPTH("lru.callsite_depth", "10");
 
 
         Item(String key, String defaultValue) {
@@ -124,14 +130,14 @@ public class Config extends FileScanListener {
     public static String baseDirectory;
     private static Integer watchId;
     //全局lru的缓存
-    public static LRUCache<Object, String> commonLRUCache;
+    public static ConcurrentLRUCache<Object, String> commonLRUCache;
 
     private String configFileDir;
     private int pluginMaxStack;
     private long pluginTimeout;
     private int bodyMaxBytes;
     private int sqlSlowQueryMinCount;
-    private String[] ignoreHooks;
+    private volatile String[] ignoreHooks;
     private String[] reflectionMonitorMethod;
     private int logMaxStackSize;
     private String blockUrl;
@@ -171,6 +177,10 @@ public class Config extends FileScanListener {
     private HashSet<Integer> sqlErrorCodes = new HashSet<Integer>();
     private boolean lruCompareEnable;
     private int lruCompareLimit;
+    private int hostInfoRefreshInterval;
+    private int ssrfDnsTimeoutMillis;
+    private boolean lruCallSiteEnable;
+    private int lruCallSiteDepth;
 
 
     static {
@@ -179,7 +189,7 @@ public class Config extends FileScanListener {
             CustomResponseHtml.load(baseDirectory);
         }
         //初始化全局缓存
-        commonLRUCache = new LRUCache<Object, String>(getConfig().getSqlCacheCapacity());
+        commonLRUCache = new ConcurrentLRUCache<Object, String>(getConfig().getSqlCacheCapacity());
         LOGGER.info("baseDirectory: " + baseDirectory);
     }
 
@@ -556,7 +566,15 @@ public class Config extends FileScanListener {
      * @param ignoreHooks
      */
     public synchronized void setIgnoreHooks(String ignoreHooks) {
-        this.ignoreHooks = ignoreHooks.replace(" ", "").split(",");
+        String[] hooks = ignoreHooks.replace(" ", "").split(",");
+        // 云控心跳等每次加载配置都会设置该项，没有变化时不需要重新计算生效的 hook 点
+        if (this.ignoreHooks != null && new HashSet<String>(Arrays.asList(this.ignoreHooks))
+                .equals(new HashSet<String>(Arrays.asList(hooks)))) {
+            return;
+        }
+        this.ignoreHooks = hooks;
+        // 在后台线程中重新转换，不会在持有配置锁时转换类
+        CustomClassTransformer.updateIgnoreHooks();
     }
 
     /**
@@ -777,6 +795,7 @@ public class Config extends FileScanListener {
      */
     public synchronized void setAlgorithmConfig(String json) {
         this.algorithmConfig = new JsonParser().parse(json).getAsJsonObject();
+        CallSiteVerdictCache.clear();
         try {
             JsonArray result = null;
             JsonElement elements = ConfigurableChecker.getElement(algorithmConfig,
@@ -957,10 +976,10 @@ public class Config extends FileScanListener {
         this.sqlCacheCapacity = value;
         if (Config.commonLRUCache == null || Config.commonLRUCache.maxSize() != this.sqlCacheCapacity) {
             if (Config.commonLRUCache == null) {
-                Config.commonLRUCache = new LRUCache<Object, String>(this.sqlCacheCapacity);
+                Config.commonLRUCache = new ConcurrentLRUCache<Object, String>(this.sqlCacheCapacity);
             } else {
                 Config.commonLRUCache.clear();
-                Config.commonLRUCache = new LRUCache<Object, String>(this.sqlCacheCapacity);
+                Config.commonLRUCache = new ConcurrentLRUCache<Object, String>(this.sqlCacheCapacity);
             }
         }
     }
@@ -1346,6 +1365,97 @@ public class Config extends FileScanListener {
         this.cpuUsageCheckInterval = interval;
     }
 
+    /**
+     * 获取主机名和网卡信息的刷新间隔，单位/秒
+     *
+     * @return 刷新间隔
+     */
+    public int getHostInfoRefreshInterval() {
+        return hostInfoRefreshInterval;
+    }
+
+    /**
+     * 设置主机名和网卡信息的刷新间隔，单位/秒
+     *
+     * @param hostInfoRefreshInterval 刷新间隔
+     */
+    public synchronized void setHostInfoRefreshInterval(String hostInfoRefreshInterval) {
+        int interval = Integer.parseInt(hostInfoRefreshInterval);
+        if (interval > 86400 || interval < 10) {
+            throw new ConfigLoadException(Item.HOST_INFO_REFRESH_INTERVAL.toString() + " must be between [10,86400]");
+        }
+        this.hostInfoRefreshInterval = interval;
+    }
+
+    /**
+     * 获取 ssrf 检测等待域名解析的最长时间，单位/毫秒，0 代表一直等待解析完成
+     *
+     * @return 等待时间
+     */
+    public int getSsrfDnsTimeoutMillis() {
+        return ssrfDnsTimeoutMillis;
+    }
+
+    /**
+     * 设置 ssrf 检测等待域名解析的最长时间，单位/毫秒，0 代表一直等待解析完成
+     *
+     * @param ssrfDnsTimeoutMillis 等待时间
+     */
+    public synchronized void setSsrfDnsTimeoutMillis(String ssrfDnsTimeoutMillis) {
+        int value = Integer.parseInt(ssrfDnsTimeoutMillis);
+        if (value > 60000 || value < 0) {
+            throw new ConfigLoadException(Item.SSRF_DNS_TIMEOUT_MILLIS.toString() + " must be between [0,60000]");
+        }
+        this.ssrfDnsTimeoutMillis = value;
+    }
+
+    /**
+     * 获取按调用位置缓存 sql 检测结果的开关
+     *
+     * @return 调用位置缓存开关
+     */
+    public boolean getLruCallSiteEnable() {
+        return lruCallSiteEnable;
+    }
+
+    /**
+     * 设置按调用位置缓存 sql 检测结果的开关
+     *
+     * @param lruCallSiteEnable 调用位置缓存开关
+     */
+    public synchronized void setLruCallSiteEnable(String lruCallSiteEnable) {
+        boolean value = Boolean.parseBoolean(lruCallSiteEnable);
+        if (value != this.lruCallSiteEnable) {
+            this.lruCallSiteEnable = value;
+            CallSiteVerdictCache.clear();
+        }
+    }
+
+    /**
+     * 获取调用位置缓存使用的栈深度
+     *
+     * @return 栈深度
+     */
+    public int getLruCallSiteDepth() {
+        return lruCallSiteDepth;
+    }
+
+    /**
+     * 设置调用位置缓存使用的栈深度
+     *
+     * @param lruCallSiteDepth 栈深度
+     */
+    public synchronized void setLruCallSiteDepth(String lruCallSiteDepth) {
+        int value = Integer.parseInt(lruCallSiteDepth);
+        if (value > 100 || value < 1) {
+            throw new ConfigLoadException(Item.LRU_CALL_SITE_DEPTH.toString() + " must be between [1,100]");
+        }
+        if (value != this.lruCallSiteDepth) {
+            this.lruCallSiteDepth = value;
+            CallSiteVerdictCache.clear();
+        }
+    }
+
     /**
      * 获取cpu的使用率的百分比
      *
@@ -1517,6 +1627,18 @@ public class Config extends FileScanListener {
             } else if (Item.LRU_COMPARE_LIMIT.key.equals(key)) {
                 setLruCompareLimit(value);
                 currentValue = getLruCompareLimit();
+            } else if (Item.HOST_INFO_REFRESH_INTERVAL.key.equals(key)) {
+                setHostInfoRefreshInterval(value);
+                currentValue = getHostInfoRefreshInterval();
+            } else if (Item.SSRF_DNS_TIMEOUT_MILLIS.key.equals(key)) {
+                setSsrfDnsTimeoutMillis(value);
+                currentValue = getSsrfDnsTimeoutMillis();
+            } else if (Item.LRU_CALL_SITE_ENABLE.key.equals(key)) {
+                setLruCallSiteEnable(value);
+                currentValue = getLruCallSiteEnable();
+            } else if (Item.LRU_CALL_SITE_DEPTH.key.equals(key)) {
+                setLruCallSiteDepth(value);
+                currentValue = getLruCallSiteDepth();
             } else {
                 isHit = false;
             }
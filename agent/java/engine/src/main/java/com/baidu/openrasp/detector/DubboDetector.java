@@ -27,8 +27,8 @@ import java.security.ProtectionDomain;
 public class DubboDetector extends ServerDetector {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/alibaba/dubbo/rpc/filter/GenericFilter".equals(className);
+    public String getMatchedClassName() {
+        return "com/alibaba/dubbo/rpc/filter/GenericFilter";
     }
 
     @Override
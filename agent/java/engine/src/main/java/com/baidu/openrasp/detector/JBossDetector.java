@@ -31,8 +31,8 @@ import java.security.ProtectionDomain;
 public class JBossDetector extends ServerDetector {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/jboss/Main".equals(className);
+    public String getMatchedClassName() {
+        return "org/jboss/Main";
     }
 
     @Override
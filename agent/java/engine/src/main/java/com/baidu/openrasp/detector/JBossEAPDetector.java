@@ -28,8 +28,8 @@ public class JBossEAPDetector extends ServerDetector {
 
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/jboss/modules/Main".equals(className);
+    public String getMatchedClassName() {
+        return "org/jboss/modules/Main";
     }
 
     @Override
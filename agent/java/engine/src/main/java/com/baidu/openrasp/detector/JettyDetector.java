@@ -26,8 +26,8 @@ import java.security.ProtectionDomain;
  */
 public class JettyDetector extends ServerDetector {
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/eclipse/jetty/server/Server".equals(className);
+    public String getMatchedClassName() {
+        return "org/eclipse/jetty/server/Server";
     }
 
     @Override
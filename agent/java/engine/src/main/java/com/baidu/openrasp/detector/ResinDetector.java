@@ -26,8 +26,8 @@ import java.security.ProtectionDomain;
 public class ResinDetector extends ServerDetector {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/resin/Resin".equals(className);
+    public String getMatchedClassName() {
+        return "com/caucho/server/resin/Resin";
     }
 
     @Override
@@ -61,7 +61,12 @@ public abstract class ServerDetector {
         return isDetected;
     }
 
-    public abstract boolean isClassMatched(String className);
+    /**
+     * 服务器标志类的类名
+     *
+     * @return 以 / 分隔的类名
+     */
+    public abstract String getMatchedClassName();
 
     public abstract boolean handleServerInfo(ClassLoader classLoader, ProtectionDomain domain);
 
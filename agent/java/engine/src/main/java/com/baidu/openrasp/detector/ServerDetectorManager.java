@@ -21,6 +21,7 @@ import org.apache.log4j.Logger;
 
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Created by tyy on 19-2-12.
@@ -31,6 +32,8 @@ public class ServerDetectorManager {
 
     private static final ServerDetectorManager instance = new ServerDetectorManager();
     private ArrayList<ServerDetector> detectors = new ArrayList<ServerDetector>();
+    // 以标志类类名为 key 的探测器索引，避免每个类加载时遍历所有探测器
+    private HashMap<String, ArrayList<ServerDetector>> detectorIndex = new HashMap<String, ArrayList<ServerDetector>>();
 
     private ServerDetectorManager() {
         detectors.add(new TomcatDetector());
@@ -43,6 +46,14 @@ public class ServerDetectorManager {
         detectors.add(new UndertowDetector());
         detectors.add(new DubboDetector());
         detectors.add(new TongWebDetector());
+        for (ServerDetector detector : detectors) {
+            ArrayList<ServerDetector> matchedDetectors = detectorIndex.get(detector.getMatchedClassName());
+            if (matchedDetectors == null) {
+                matchedDetectors = new ArrayList<ServerDetector>(1);
+                detectorIndex.put(detector.getMatchedClassName(), matchedDetectors);
+            }
+            matchedDetectors.add(detector);
+        }
     }
 
     public static ServerDetectorManager getInstance() {
@@ -57,8 +68,12 @@ public class ServerDetectorManager {
      */
     public void detectServer(String className, ClassLoader classLoader, ProtectionDomain domain) {
         try {
-            for (ServerDetector detector : detectors) {
-                if (detector.isClassMatched(className) && detector.handleServer(className, classLoader, domain)) {
+            ArrayList<ServerDetector> matchedDetectors = className != null ? detectorIndex.get(className) : null;
+            if (matchedDetectors == null) {
+                return;
+            }
+            for (ServerDetector detector : matchedDetectors) {
+                if (detector.handleServer(className, classLoader, domain)) {
                     HookHandler.LOGGER.info("detect server class: " + className);
                 }
             }
@@ -69,12 +84,7 @@ public class ServerDetectorManager {
     }
 
     public boolean isClassMatched(String className) {
-        for (ServerDetector detector : detectors) {
-            if (detector.isClassMatched(className)) {
-                return true;
-            }
-        }
-        return false;
+        return className != null && detectorIndex.containsKey(className);
     }
 
 }
@@ -28,8 +28,8 @@ import java.security.ProtectionDomain;
 public class TomcatDetector extends ServerDetector {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/catalina/Server".equals(className);
+    public String getMatchedClassName() {
+        return "org/apache/catalina/Server";
     }
 
     @Override
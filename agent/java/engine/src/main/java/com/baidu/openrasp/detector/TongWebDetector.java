@@ -16,8 +16,8 @@ import java.security.ProtectionDomain;
 public class TongWebDetector extends ServerDetector {
 
 	@Override
-	public boolean isClassMatched(String className) {
-        return "com/tongweb/web/thor/Server".equals(className);
+	public String getMatchedClassName() {
+        return "com/tongweb/web/thor/Server";
 	}
 
 	@Override
@@ -28,8 +28,8 @@ import java.security.ProtectionDomain;
  */
 public class UndertowDetector extends ServerDetector {
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/server/HttpHandler".equals(className);
+    public String getMatchedClassName() {
+        return "io/undertow/server/HttpHandler";
     }
 
     @Override
@@ -26,8 +26,8 @@ import java.security.ProtectionDomain;
  */
 public class WeblogicDetector extends ServerDetector {
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/WebAppServletContext".equals(className);
+    public String getMatchedClassName() {
+        return "weblogic/servlet/internal/WebAppServletContext";
     }
 
     @Override
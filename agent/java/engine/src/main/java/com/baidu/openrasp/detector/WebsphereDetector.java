@@ -39,8 +39,8 @@ public class WebsphereDetector extends ServerDetector {
     private static final String WAS_VERSION_ROOT = File.separator + "properties" + File.separator + "version" + File.separator + "WAS.product";
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/eclipse/core/launcher/Main".equals(className);
+    public String getMatchedClassName() {
+        return "org/eclipse/core/launcher/Main";
     }
 
     @Override
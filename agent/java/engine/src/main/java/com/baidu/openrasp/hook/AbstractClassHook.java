@@ -18,6 +18,7 @@ package com.baidu.openrasp.hook;
 
 
 import com.baidu.openrasp.config.Config;
+import com.baidu.openrasp.exceptions.SecurityException;
 import com.baidu.openrasp.messaging.ErrorType;
 import com.baidu.openrasp.messaging.LogTool;
 import javassist.*;
@@ -41,21 +42,110 @@ public abstract class AbstractClassHook {
 
     protected boolean couldIgnore = true;
 
-    private boolean isLoadedByBootstrapLoader = false;
+    // 当前线程正在转换的类的匹配结果，织入代码时根据它生成调用检测方法的代码，hook 点实例本身不保存转换状态
+    private static final ThreadLocal<ClassMatch> transformingMatch = new ThreadLocal<ClassMatch>();
 
     protected boolean isNecessary = false;
 
+    private volatile MatchedClasses matchedClasses;
+
     public boolean isNecessary() {
         return isNecessary;
     }
 
     /**
      * 用于判断类名与当前需要hook的类是否相同
+     * 默认根据 {@link #getMatchedClassNames()}、{@link #getMatchedClassPrefixes()}、{@link #getMatchedClassSuffixes()}
+     * 声明的类名进行匹配
      *
      * @param className 用于匹配的类名
      * @return 是否匹配
      */
-    public abstract boolean isClassMatched(String className);
+    public boolean isClassMatched(String className) {
+        MatchedClasses matchedClasses = getMatchedClasses();
+        String[] names = matchedClasses.names;
+        if (names != null) {
+            for (String name : names) {
+                if (name.equals(className)) {
+                    return true;
+                }
+            }
+        }
+        String[] prefixes = matchedClasses.prefixes;
+        if (prefixes != null) {
+            for (String prefix : prefixes) {
+                if (className.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        String[] suffixes = matchedClasses.suffixes;
+        if (suffixes != null) {
+            for (String suffix : suffixes) {
+                if (className.endsWith(suffix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 声明的类名、前缀和后缀在 hook 点的生命周期中不变，第一次匹配时获取一次，避免每次匹配都重新创建数组
+     */
+    private MatchedClasses getMatchedClasses() {
+        MatchedClasses matchedClasses = this.matchedClasses;
+        if (matchedClasses == null) {
+            matchedClasses = new MatchedClasses(getMatchedClassNames(), getMatchedClassPrefixes(),
+                    getMatchedClassSuffixes());
+            this.matchedClasses = matchedClasses;
+        }
+        return matchedClasses;
+    }
+
+    /**
+     * 匹配类名并生成匹配结果，匹配过程不能修改 hook 点实例的状态
+     * 需要根据匹配到的类织入不同代码的 hook 点覆盖该方法，在匹配结果中携带所需信息
+     *
+     * @param className 用于匹配的类名
+     * @param loader    加载该类的类加载器，为 null 代表 BootstrapClassLoader
+     * @return 匹配结果，不匹配返回 null
+     */
+    public ClassMatch match(String className, ClassLoader loader) {
+        return isClassMatched(className) ? new ClassMatch(className, loader) : null;
+    }
+
+    /**
+     * hook 点所匹配的完整类名，transformer 根据声明的类名、前缀和后缀建立索引，
+     * 只有命中索引的类才会调用 {@link #isClassMatched(String)} 进一步判断
+     * 三者都返回 null 代表无法预先声明，每个加载的类都会调用 {@link #isClassMatched(String)}
+     * 返回值在 hook 点的生命周期中不能变化，默认的 {@link #isClassMatched(String)} 只获取一次
+     *
+     * @return 以 / 分隔的类名
+     */
+    public String[] getMatchedClassNames() {
+        return null;
+    }
+
+    /**
+     * hook 点所匹配的类名前缀
+     *
+     * @return 以 / 分隔的类名前缀
+     * @see #getMatchedClassNames()
+     */
+    public String[] getMatchedClassPrefixes() {
+        return null;
+    }
+
+    /**
+     * hook 点所匹配的类名后缀
+     *
+     * @return 以 / 分隔的类名后缀
+     * @see #getMatchedClassNames()
+     */
+    public String[] getMatchedClassSuffixes() {
+        return null;
+    }
 
     /**
      * hook点所属检测类型．
@@ -72,21 +162,46 @@ public abstract class AbstractClassHook {
      */
     protected abstract void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException;
 
+    /**
+     * 根据匹配结果 hook 目标类的函数，默认忽略匹配结果
+     *
+     * @param ctClass 目标类
+     * @param match   {@link #match(String, ClassLoader)} 返回的匹配结果
+     */
+    protected void hookMethod(CtClass ctClass, ClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException {
+        hookMethod(ctClass);
+    }
+
+    /**
+     * 织入代码中是否使用 instanceof 判断检测方法抛出的 SecurityException，
+     * 返回 false 时退回到比较异常类名，用于目标类无法解析引擎中的类的情况
+     *
+     * @return true 代表使用 instanceof 判断
+     */
+    protected boolean isInstanceofCheckEnabled() {
+        return true;
+    }
+
     /**
      * 转化目标类
      *
      * @param ctClass 待转化的类
+     * @param match   {@link #match(String, ClassLoader)} 返回的匹配结果
      * @return 转化之后类的字节码数组
      */
-    public byte[] transformClass(CtClass ctClass) {
+    public byte[] transformClass(CtClass ctClass, ClassMatch match) {
+        transformingMatch.set(match);
         try {
-            hookMethod(ctClass);
+            hookMethod(ctClass, match);
             return ctClass.toBytecode();
         } catch (Throwable e) {
             e.printStackTrace();
             if (Config.getConfig().isDebugEnabled()) {
                 LOGGER.info("transform class " + ctClass.getName() + " failed", e);
             }
+        } finally {
+            transformingMatch.remove();
         }
         return null;
     }
@@ -100,24 +215,6 @@ public abstract class AbstractClassHook {
         return couldIgnore;
     }
 
-    /**
-     * hook 点所在的类是否被 BootstrapClassLoader 加载
-     *
-     * @return true 代表是
-     */
-    public boolean isLoadedByBootstrapLoader() {
-        return isLoadedByBootstrapLoader;
-    }
-
-    /**
-     * 设置 hook 点所在的类是否被 BootstrapClassLoader 加载
-     *
-     * @param loadedByBootstrapLoader true 代表是
-     */
-    public void setLoadedByBootstrapLoader(boolean loadedByBootstrapLoader) {
-        isLoadedByBootstrapLoader = loadedByBootstrapLoader;
-    }
-
     /**
      * 在目标类的目标方法的入口插入相应的源代码
      *
@@ -283,6 +380,7 @@ public abstract class AbstractClassHook {
 
     /**
      * 获取调用静态方法的代码字符串
+     * 需要在 {@link #transformClass(CtClass, ClassMatch)} 中调用，根据当前转换的类是否被 BootstrapClassLoader 加载生成不同的代码
      *
      * @param invokeClass 静态方法所属的类
      * @param methodName  静态方法名称
@@ -309,7 +407,24 @@ public abstract class AbstractClassHook {
         } else {
             parameterTypesString = "new Class[]{" + parameterTypesString + "}";
         }
-        if (isLoadedByBootstrapLoader) {
+        boolean instanceofCheck = isInstanceofCheckEnabled();
+        ClassMatch match = transformingMatch.get();
+        if (match != null && match.isLoadedByBootstrapLoader()) {
+            String dispatchMethod = BootstrapHookDispatcher.getDispatchMethod(invokeClass, methodName, parameterTypes);
+            if (dispatchMethod != null) {
+                src = "com.baidu.openrasp.HookDispatcher." + dispatchMethod + "(" + paramString + ");";
+                if (instanceofCheck) {
+                    // BootstrapClassLoader 加载的类无法引用引擎中的类，由 HookDispatcher 持有异常类进行判断
+                    src = "try {" + src + "} catch (Throwable t) {if(com.baidu.openrasp.HookDispatcher" +
+                            ".isSecurityException(t)){throw t;}}";
+                } else {
+                    src = "try {" + src + "} catch (Throwable t) {if(t.getClass()" +
+                            ".getName().equals(\"com.baidu.openrasp.exceptions.SecurityException\")){throw t;}}";
+                }
+                return src;
+            }
+            LogTool.warn(ErrorType.HOOK_ERROR, "hook method " + invokeClassName + "." + methodName
+                    + " is not declared in HookDispatcher, fall back to reflection call");
             src = "com.baidu.openrasp.ModuleLoader.moduleClassLoader.loadClass(\"" + invokeClassName + "\").getMethod(\"" + methodName +
                     "\"," + parameterTypesString + ").invoke(null";
             if (!StringUtils.isEmpty(paramString)) {
@@ -317,14 +432,36 @@ public abstract class AbstractClassHook {
             } else {
                 src += ",null);";
             }
-            src = "try {" + src + "} catch (Throwable t) {if(t.getCause() != null && t.getCause().getClass()" +
-                    ".getName().equals(\"com.baidu.openrasp.exceptions.SecurityException\")){throw t;}}";
+            if (instanceofCheck) {
+                src = "try {" + src + "} catch (Throwable t) {if(com.baidu.openrasp.HookDispatcher" +
+                        ".isSecurityException(t.getCause())){throw t;}}";
+            } else {
+                src = "try {" + src + "} catch (Throwable t) {if(t.getCause() != null && t.getCause().getClass()" +
+                        ".getName().equals(\"com.baidu.openrasp.exceptions.SecurityException\")){throw t;}}";
+            }
         } else {
             src = invokeClassName + '.' + methodName + "(" + paramString + ");";
-            src = "try {" + src + "} catch (Throwable t) {if(t.getClass()" +
-                    ".getName().equals(\"com.baidu.openrasp.exceptions.SecurityException\")){throw t;}}";
+            if (instanceofCheck) {
+                src = "try {" + src + "} catch (Throwable t) {if(t instanceof " +
+                        "com.baidu.openrasp.exceptions.SecurityException){throw t;}}";
+            } else {
+                src = "try {" + src + "} catch (Throwable t) {if(t.getClass()" +
+                        ".getName().equals(\"com.baidu.openrasp.exceptions.SecurityException\")){throw t;}}";
+            }
         }
         return src;
     }
 
+    private static class MatchedClasses {
+        private final String[] names;
+        private final String[] prefixes;
+        private final String[] suffixes;
+
+        MatchedClasses(String[] names, String[] prefixes, String[] suffixes) {
+            this.names = names;
+            this.prefixes = prefixes;
+            this.suffixes = suffixes;
+        }
+    }
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.hook;
+
+import com.baidu.openrasp.BootstrapHookChecker;
+import com.baidu.openrasp.HookDispatcher;
+import com.baidu.openrasp.hook.file.FileHook;
+import com.baidu.openrasp.hook.file.FileInputStreamHook;
+import com.baidu.openrasp.hook.file.FileOutputStreamHook;
+import com.baidu.openrasp.hook.file.FileRenameHook;
+import com.baidu.openrasp.hook.ssrf.URLConnectionHook;
+import com.baidu.openrasp.hook.system.LoadLibraryHook;
+import com.baidu.openrasp.hook.system.ProcessBuilderHook;
+import com.baidu.openrasp.hook.xxe.DisableDomXxeEntity;
+import com.baidu.openrasp.hook.xxe.DisableSaxXxeEntity;
+import com.baidu.openrasp.hook.xxe.DisableStaxXxeEntity;
+import com.baidu.openrasp.hook.xxe.XXEHook;
+
+import java.io.File;
+import java.io.ObjectStreamClass;
+import java.net.SocketAddress;
+import java.net.URLConnection;
+import java.util.HashMap;
+
+/**
+ * {@link BootstrapHookChecker} 的实现，将 {@link HookDispatcher} 的调用转发到各个 hook 点的检测方法
+ */
+public class BootstrapHookDispatcher implements BootstrapHookChecker {
+
+    // hook 点检测方法与 HookDispatcher 中方法名的对应关系
+    private static final HashMap<String, String> dispatchMethods = new HashMap<String, String>();
+
+    static {
+        addDispatchMethod(FileHook.class, "checkListFiles", "checkListFiles");
+        addDispatchMethod(FileInputStreamHook.class, "checkReadFile", "checkReadFile");
+        addDispatchMethod(FileOutputStreamHook.class, "checkWriteFile", "checkWriteFile");
+        addDispatchMethod(FileRenameHook.class, "checkFileRename", "checkFileRename");
+        addDispatchMethod(URLConnectionHook.class, "checkHttpConnection", "checkHttpConnection");
+        addDispatchMethod(SocketHook.class, "checkSocketHost", "checkSocketHost");
+        addDispatchMethod(DeserializationHook.class, "checkDeserializationClass", "checkDeserializationClass");
+        addDispatchMethod(ProcessBuilderHook.class, "checkCommand", "checkCommand");
+        addDispatchMethod(LoadLibraryHook.class, "checkSystemLoadFile", "checkSystemLoadFile");
+        addDispatchMethod(LoadLibraryHook.class, "checkSystemLoadPath", "checkSystemLoadPath");
+        addDispatchMethod(LoadLibraryHook.class, "closeCheckSystemLoad", "closeCheckSystemLoad");
+        addDispatchMethod(XXEHook.class, "checkXXE", "checkXXE");
+        addDispatchMethod(DisableStaxXxeEntity.class, "setFeature", "disableStaxXxeEntity");
+        addDispatchMethod(DisableDomXxeEntity.class, "setFeature", "disableDomXxeEntity");
+        addDispatchMethod(DisableSaxXxeEntity.class, "setFeature", "disableSaxXxeEntity");
+    }
+
+    private static void addDispatchMethod(Class invokeClass, String methodName, String dispatchMethod) {
+        dispatchMethods.put(invokeClass.getName() + "." + methodName, dispatchMethod);
+    }
+
+    /**
+     * 获取检测方法在 {@link HookDispatcher} 中对应的方法名
+     *
+     * @param invokeClass    检测方法所属的类
+     * @param methodName     检测方法名称
+     * @param parameterTypes 检测方法的参数类型
+     * @return HookDispatcher 中的方法名，没有对应方法时返回 null
+     */
+    static String getDispatchMethod(Class invokeClass, String methodName, Class... parameterTypes) {
+        String dispatchMethod = dispatchMethods.get(invokeClass.getName() + "." + methodName);
+        if (dispatchMethod == null) {
+            return null;
+        }
+        try {
+            HookDispatcher.class.getMethod(dispatchMethod, parameterTypes);
+            return dispatchMethod;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void checkListFiles(File file) {
+        FileHook.checkListFiles(file);
+    }
+
+    @Override
+    public void checkReadFile(File file) {
+        FileInputStreamHook.checkReadFile(file);
+    }
+
+    @Override
+    public void checkWriteFile(File file) {
+        FileOutputStreamHook.checkWriteFile(file);
+    }
+
+    @Override
+    public void checkFileRename(File source, File dest) {
+        FileRenameHook.checkFileRename(source, dest);
+    }
+
+    @Override
+    public void checkHttpConnection(URLConnection urlConnection) {
+        URLConnectionHook.checkHttpConnection(urlConnection);
+    }
+
+    @Override
+    public void checkSocketHost(SocketAddress address) {
+        SocketHook.checkSocketHost(address);
+    }
+
+    @Override
+    public void checkDeserializationClass(ObjectStreamClass objectStreamClass) {
+        DeserializationHook.checkDeserializationClass(objectStreamClass);
+    }
+
+    @Override
+    public void checkCommand(byte[] command, byte[] args, byte[] envBlock) {
+        ProcessBuilderHook.checkCommand(command, args, envBlock);
+    }
+
+    @Override
+    public void checkCommand(String[] command, String envBlock) {
+        ProcessBuilderHook.checkCommand(command, envBlock);
+    }
+
+    @Override
+    public void checkSystemLoadFile(File libFile) {
+        LoadLibraryHook.checkSystemLoadFile(libFile);
+    }
+
+    @Override
+    public void checkSystemLoadPath(String libPath) {
+        LoadLibraryHook.checkSystemLoadPath(libPath);
+    }
+
+    @Override
+    public void closeCheckSystemLoad() {
+        LoadLibraryHook.closeCheckSystemLoad();
+    }
+
+    @Override
+    public void checkXXE(String expandedSystemId) {
+        XXEHook.checkXXE(expandedSystemId);
+    }
+
+    @Override
+    public void disableStaxXxeEntity(Object factory) {
+        DisableStaxXxeEntity.setFeature(factory);
+    }
+
+    @Override
+    public void disableDomXxeEntity(Object parser) {
+        DisableDomXxeEntity.setFeature(parser);
+    }
+
+    @Override
+    public void disableSaxXxeEntity(Object factory) {
+        DisableSaxXxeEntity.setFeature(factory);
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.hook;
+
+/**
+ * hook 点与类的匹配结果，由 {@link AbstractClassHook#match(String, ClassLoader)} 生成并传入
+ * {@link AbstractClassHook#transformClass(javassist.CtClass, ClassMatch)}
+ *
+ * 匹配结果不可变，同一个 hook 点可以在多个线程中同时转换不同的类，
+ * 需要根据匹配到的类织入不同代码的 hook 点通过继承该类携带额外信息，不能保存在 hook 点实例中
+ */
+public class ClassMatch {
+
+    private final String className;
+    private final boolean loadedByBootstrapLoader;
+
+    /**
+     * @param className 以 / 分隔的类名
+     * @param loader    加载该类的类加载器，为 null 代表 BootstrapClassLoader
+     */
+    public ClassMatch(String className, ClassLoader loader) {
+        this.className = className;
+        this.loadedByBootstrapLoader = loader == null;
+    }
+
+    /**
+     * 匹配到的类名
+     *
+     * @return 以 / 分隔的类名
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 匹配到的类是否被 BootstrapClassLoader 加载，决定织入代码调用检测方法的方式
+     *
+     * @return true 代表是
+     */
+    public boolean isLoadedByBootstrapLoader() {
+        return loadedByBootstrapLoader;
+    }
+
+}
@@ -46,11 +46,11 @@ public class DeserializationHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/io/ObjectInputStream".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/io/ObjectInputStream"};
     }
 
     /**
@@ -33,11 +33,14 @@ public class HttpServletHook extends ServerRequestHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassSuffixes()
      */
     @Override
-    public boolean isClassMatched(String name) {
-        return name.endsWith("http/HttpServlet") || name.endsWith("servlet/JspServlet");
+    public String[] getMatchedClassSuffixes() {
+        return new String[]{
+                "http/HttpServlet",
+                "servlet/JspServlet"
+        };
     }
 
     /**
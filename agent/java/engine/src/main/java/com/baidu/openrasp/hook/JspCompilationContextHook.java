@@ -46,8 +46,8 @@ public class JspCompilationContextHook extends AbstractClassHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/jasper/JspCompilationContext".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/jasper/JspCompilationContext"};
     }
 
     /**
@@ -20,6 +20,7 @@ import com.baidu.openrasp.HookHandler;
 import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
+import com.baidu.openrasp.tool.CanonicalPathCache;
 import com.baidu.openrasp.tool.annotation.HookAnnotation;
 import javassist.CannotCompileException;
 import javassist.CtClass;
@@ -52,8 +53,8 @@ public class JstlImportHook extends AbstractClassHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/taglibs/standard/tag/common/core/ImportSupport".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/taglibs/standard/tag/common/core/ImportSupport"};
     }
 
     /**
@@ -82,14 +83,10 @@ public class JstlImportHook extends AbstractClassHook {
                 if (url.startsWith("file://")) {
                     File realFile = new File(new URI(url));
                     boolean checkSwitch = Config.getConfig().getPluginFilter();
-                    if (checkSwitch && !realFile.exists()) {
+                    if (checkSwitch && !CanonicalPathCache.exists(realFile)) {
                         return;
                     }
-                    try {
-                        params.put("realpath", realFile.getCanonicalPath());
-                    } catch (Exception e) {
-                        params.put("realpath", realFile.getAbsolutePath());
-                    }
+                    params.put("realpath", CanonicalPathCache.getCanonicalPath(realFile));
                 }
             } catch (Exception e) {
                 LogTool.traceHookWarn("Jstl hook check failed: " + e.getMessage(), e);
@@ -45,11 +45,11 @@ public class OgnlHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "ognl/OgnlParser".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"ognl/OgnlParser"};
     }
 
     /**
@@ -23,6 +23,7 @@ import javassist.CannotCompileException;
 import javassist.CtClass;
 import javassist.NotFoundException;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.HashMap;
@@ -39,8 +40,8 @@ public class SocketHook extends AbstractClassHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.equals("java/net/Socket");
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/net/Socket"};
     }
 
     /**
@@ -73,13 +74,36 @@ public class SocketHook extends AbstractClassHook {
     public static void checkSocketHost(SocketAddress address) {
         try {
             if (address != null && address instanceof InetSocketAddress) {
+                InetSocketAddress socketAddress = (InetSocketAddress) address;
                 HashMap<String, Object> params = new HashMap<String, Object>();
-                String hostName = ((InetSocketAddress) address).getHostName();
-                params.put("hostname", hostName);
+                params.put("hostname", getHostString(socketAddress));
+                params.put("port", String.valueOf(socketAddress.getPort()));
                 HookHandler.doCheck(CheckParameter.Type.SSRF, params);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 获取连接地址的主机名，只使用创建地址时已知的主机名，不进行反向域名解析，
+     * 与 JDK 7 的 InetSocketAddress#getHostString 相同，这里需要兼容 JDK 6
+     *
+     * @param address socket连接地址
+     * @return 创建时传入的主机名，只有 ip 时返回 ip 字面量
+     */
+    private static String getHostString(InetSocketAddress address) {
+        InetAddress inetAddress = address.getAddress();
+        if (inetAddress == null) {
+            // 未解析的地址，getHostName 直接返回创建时的主机名
+            return address.getHostName();
+        }
+        // InetAddress#toString 的格式为 "主机名/ip"，主机名未知时为空
+        String value = inetAddress.toString();
+        int index = value.indexOf('/');
+        if (index > 0) {
+            return value.substring(0, index);
+        }
+        return inetAddress.getHostAddress();
+    }
 }
@@ -33,11 +33,11 @@ public class Struts2DispatcherHook extends ServerRequestHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/struts2/dispatcher/Dispatcher".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/struts2/dispatcher/Dispatcher"};
     }
 
     /**
@@ -50,8 +50,8 @@ public class WebDAVCopyResourceHook extends AbstractClassHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/catalina/servlets/WebdavServlet".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/catalina/servlets/WebdavServlet"};
     }
 
     /**
@@ -39,8 +39,8 @@ public class DubboPreRequestHook extends AbstractClassHook {
     }
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/alibaba/dubbo/rpc/filter/GenericFilter".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/alibaba/dubbo/rpc/filter/GenericFilter"};
     }
 
     @Override
@@ -42,8 +42,8 @@ public class DubboRequestHook extends AbstractClassHook {
     }
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/alibaba/dubbo/rpc/filter/ContextFilter".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/alibaba/dubbo/rpc/filter/ContextFilter"};
     }
 
     @Override
@@ -21,6 +21,7 @@ import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.hook.AbstractClassHook;
 import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
+import com.baidu.openrasp.tool.CanonicalPathCache;
 import com.baidu.openrasp.tool.StackTrace;
 import com.baidu.openrasp.tool.annotation.HookAnnotation;
 import javassist.CannotCompileException;
@@ -50,11 +51,11 @@ public class FileHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/io/File".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/io/File"};
     }
 
     /**
@@ -76,20 +77,16 @@ public class FileHook extends AbstractClassHook {
     public static void checkListFiles(File file) {
         boolean checkSwitch = Config.getConfig().getPluginFilter();
         if (file != null) {
-            if (checkSwitch && !file.exists()) {
+            if (checkSwitch && !CanonicalPathCache.exists(file)) {
                 return;
             }
             HashMap<String, Object> params = null;
             try {
                 params = new HashMap<String, Object>();
                 params.put("path", file.getPath());
-                List<String> stackInfo = StackTrace.getParamStackTraceArray();
+                List<String> stackInfo = StackTrace.getLazyParamStackTraceArray(FileHook.class);
                 params.put("stack", stackInfo);
-                try {
-                    params.put("realpath", file.getCanonicalPath());
-                } catch (Exception e) {
-                    params.put("realpath", file.getAbsolutePath());
-                }
+                params.put("realpath", CanonicalPathCache.getCanonicalPath(file));
             } catch (Throwable t) {
                 LogTool.traceHookWarn(t.getMessage(), t);
             }
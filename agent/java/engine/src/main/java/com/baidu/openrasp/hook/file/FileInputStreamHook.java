@@ -20,6 +20,7 @@ import com.baidu.openrasp.HookHandler;
 import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.hook.AbstractClassHook;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
+import com.baidu.openrasp.tool.CanonicalPathCache;
 import com.baidu.openrasp.tool.FileUtil;
 import com.baidu.openrasp.tool.annotation.HookAnnotation;
 import javassist.CannotCompileException;
@@ -48,11 +49,11 @@ public class FileInputStreamHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/io/FileInputStream".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/io/FileInputStream"};
     }
 
     /**
@@ -74,22 +75,16 @@ public class FileInputStreamHook extends AbstractClassHook {
     public static void checkReadFile(File file) {
         boolean checkSwitch = Config.getConfig().getPluginFilter();
         if (file != null) {
-            if (checkSwitch && !file.exists()) {
+            if (checkSwitch && !CanonicalPathCache.exists(file)) {
                 return;
             }
-            HashMap<String, Object> params = new HashMap<String, Object>();
-            params.put("path", file.getPath());
-
-            String path;
-            try {
-                path = file.getCanonicalPath();
-            } catch (Exception e) {
-                path = file.getAbsolutePath();
-            }
-            if (path.endsWith(".class")) {
+            String realPath = FileUtil.getRealPath(file);
+            if (realPath.endsWith(".class")) {
                 return;
             }
-            params.put("realpath", FileUtil.getRealPath(file));
+            HashMap<String, Object> params = new HashMap<String, Object>();
+            params.put("path", file.getPath());
+            params.put("realpath", realPath);
 
             HookHandler.doCheck(CheckParameter.Type.READFILE, params);
         }
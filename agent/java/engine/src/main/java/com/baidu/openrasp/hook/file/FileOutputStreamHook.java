@@ -54,8 +54,8 @@ public class FileOutputStreamHook extends AbstractClassHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/io/FileOutputStream".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/io/FileOutputStream"};
     }
 
     /**
@@ -79,7 +79,7 @@ public class FileOutputStreamHook extends AbstractClassHook {
             HashMap<String, Object> params = new HashMap<String, Object>();
             params.put("path", file.getPath());
             params.put("realpath", FileUtil.getRealPath(file));
-            List<String> stackInfo = StackTrace.getParamStackTraceArray();
+            List<String> stackInfo = StackTrace.getLazyParamStackTraceArray(FileOutputStreamHook.class);
             params.put("stack", stackInfo);
             HookHandler.doCheck(CheckParameter.Type.WRITEFILE, params);
         }
@@ -38,8 +38,8 @@ import java.io.IOException;
 @HookAnnotation
 public class FileRenameHook extends AbstractClassHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/io/File".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/io/File"};
     }
 
     @Override
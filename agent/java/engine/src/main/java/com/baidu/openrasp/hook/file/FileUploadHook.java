@@ -39,8 +39,8 @@ import java.util.List;
 public class FileUploadHook extends AbstractClassHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/commons/fileupload/FileUploadBase".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/commons/fileupload/FileUploadBase"};
     }
 
     @Override
@@ -73,8 +73,8 @@ public class FileUploadHook extends AbstractClassHook {
                     fileItemCache.add(new RequestFileItem(name, filename));
                 }
             }
-            HookHandler.requestCache.get().setFormItemCache(formItemCache);
-            HookHandler.requestCache.get().setFileParamCache(fileItemCache);
+            HookHandler.getRequestCache().setFormItemCache(formItemCache);
+            HookHandler.getRequestCache().setFileParamCache(fileItemCache);
         }
     }
 
@@ -31,8 +31,8 @@ public class FileUploadItemHook extends AbstractClassHook {
     };
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/commons/fileupload/disk/DiskFileItem".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/commons/fileupload/disk/DiskFileItem"};
     }
 
     @Override
@@ -99,7 +99,7 @@ public class FileUploadItemHook extends AbstractClassHook {
     private static String getCharSet(Object fileItem) {
         String charSet = Reflection.invokeStringMethod(fileItem, "getCharSet", new Class[]{});
         if (charSet == null) {
-            charSet = HookHandler.requestCache.get().getCharacterEncoding();
+            charSet = HookHandler.getRequestCache().getCharacterEncoding();
         }
         if (!StringUtils.isEmpty(charSet)) {
             return charSet;
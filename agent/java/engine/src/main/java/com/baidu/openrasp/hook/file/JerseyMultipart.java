@@ -42,8 +42,8 @@ import java.util.Map;
 @HookAnnotation
 public class JerseyMultipart extends AbstractClassHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/glassfish/jersey/media/multipart/FormDataMultiPart".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/glassfish/jersey/media/multipart/FormDataMultiPart"};
     }
 
     @Override
@@ -38,85 +38,99 @@ public abstract class ServerInputHook extends AbstractClassHook {
     }
 
     public static void onCharRead(int character, Object reader) {
-        if (character != -1 && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getCharReader() == null) {
-                request.setCharReader(reader);
-            }
-            if (request.getCharReader() == reader) {
-                request.appendCharBody(character);
+        if (character != -1) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getCharReader() == null) {
+                    request.setCharReader(reader);
+                }
+                if (request.getCharReader() == reader) {
+                    request.appendCharBody(character);
+                }
             }
         }
     }
 
     public static void onCharRead(int ret, Object reader, char[] cbuf) {
-        if (ret != -1 && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getCharReader() == null) {
-                request.setCharReader(reader);
-            }
-            if (request.getCharReader() == reader) {
-                request.appendBody(cbuf, 0, ret);
+        if (ret != -1) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getCharReader() == null) {
+                    request.setCharReader(reader);
+                }
+                if (request.getCharReader() == reader) {
+                    request.appendBody(cbuf, 0, ret);
+                }
             }
         }
     }
 
     public static void onCharRead(int ret, Object reader, char[] cbuf, int off) {
-        if (ret != -1 && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getCharReader() == null) {
-                request.setCharReader(reader);
-            }
-            if (request.getCharReader() == reader) {
-                request.appendBody(cbuf, off, ret);
+        if (ret != -1) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getCharReader() == null) {
+                    request.setCharReader(reader);
+                }
+                if (request.getCharReader() == reader) {
+                    request.appendBody(cbuf, off, ret);
+                }
             }
         }
     }
 
     public static void onCharReadLine(String line, Object reader) {
-        if (line != null && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getCharReader() == null) {
-                request.setCharReader(reader);
-            }
-            if (request.getCharReader() == reader) {
-                request.appendBody((line + "\n").toCharArray(), 0, line.length() + 1);
+        if (line != null) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getCharReader() == null) {
+                    request.setCharReader(reader);
+                }
+                if (request.getCharReader() == reader) {
+                    request.appendBody((line + "\n").toCharArray(), 0, line.length() + 1);
+                }
             }
         }
     }
 
     public static void onInputStreamRead(int ret, Object inputStream) {
-        if (ret != -1 && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getInputStream() == null) {
-                request.setInputStream(inputStream);
-            }
-            if (request.getInputStream() == inputStream) {
-                request.appendByteBody(ret);
+        if (ret != -1) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getInputStream() == null) {
+                    request.setInputStream(inputStream);
+                }
+                if (request.getInputStream() == inputStream) {
+                    request.appendByteBody(ret);
+                }
             }
         }
     }
 
     public static void onInputStreamRead(int ret, Object inputStream, byte[] bytes) {
-        if (ret != -1 && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getInputStream() == null) {
-                request.setInputStream(inputStream);
-            }
-            if (request.getInputStream() == inputStream) {
-                request.appendBody(bytes, 0, ret);
+        if (ret != -1) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getInputStream() == null) {
+                    request.setInputStream(inputStream);
+                }
+                if (request.getInputStream() == inputStream) {
+                    request.appendBody(bytes, 0, ret);
+                }
             }
         }
     }
 
     public static void onInputStreamRead(int ret, Object inputStream, byte[] bytes, int offset) {
-        if (ret != -1 && HookHandler.requestCache.get() != null) {
-            AbstractRequest request = HookHandler.requestCache.get();
-            if (request.getInputStream() == null) {
-                request.setInputStream(inputStream);
-            }
-            if (request.getInputStream() == inputStream) {
-                request.appendBody(bytes, offset, ret);
+        if (ret != -1) {
+            AbstractRequest request = HookHandler.getRequestCache();
+            if (request != null) {
+                if (request.getInputStream() == null) {
+                    request.setInputStream(inputStream);
+                }
+                if (request.getInputStream() == inputStream) {
+                    request.appendBody(bytes, offset, ret);
+                }
             }
         }
     }
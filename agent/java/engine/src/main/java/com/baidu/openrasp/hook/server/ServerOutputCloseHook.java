@@ -96,13 +96,13 @@ public abstract class ServerOutputCloseHook extends AbstractClassHook {
                         isClosed = (Boolean) Reflection.invokeMethod(output, "isClosed", new Class[]{});
                     }
                 }
-                HttpServletResponse response = HookHandler.responseCache.get();
+                HttpServletResponse response = HookHandler.getResponseCache();
                 if (isClosed != null && !isClosed && response != null) {
                     String contentType = response.getContentType();
                     if (contentType != null && contentType.contains(HttpServletResponse.CONTENT_TYPE_HTML_VALUE)) {
                         String injectPathPrefix = Config.getConfig().getInjectUrlPrefix();
                         if (!StringUtils.isEmpty(injectPathPrefix) &&
-                                HookHandler.requestCache.get().getRequestURL().toString().startsWith(injectPathPrefix)) {
+                                HookHandler.getRequestCache().getRequestURL().toString().startsWith(injectPathPrefix)) {
                             String appendHtml = Config.getConfig().getCustomResponseScript();
                             if (!StringUtils.isEmpty(appendHtml)) {
                                 response.sendContent(appendHtml, false);
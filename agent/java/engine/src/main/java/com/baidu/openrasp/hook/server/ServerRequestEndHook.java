@@ -17,6 +17,7 @@
 package com.baidu.openrasp.hook.server;
 
 import com.baidu.openrasp.HookHandler;
+import com.baidu.openrasp.RaspThreadContext;
 import com.baidu.openrasp.hook.AbstractClassHook;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
 
@@ -39,9 +40,10 @@ public abstract class ServerRequestEndHook extends AbstractClassHook {
     }
 
     public static void checkRequestEnd() {
-        if (HookHandler.enableEnd.get()) {
+        RaspThreadContext context = HookHandler.getThreadContext();
+        if (context.isEnableEnd()) {
             HookHandler.doCheck(CheckParameter.Type.REQUESTEND, new HashMap<String, Object>());
-            HookHandler.enableEnd.set(false);
+            context.setEnableEnd(false);
         }
     }
 
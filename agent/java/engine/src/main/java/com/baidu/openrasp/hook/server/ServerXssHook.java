@@ -32,8 +32,8 @@ public abstract class ServerXssHook extends AbstractClassHook {
     }
 
     protected static boolean isCheckXss() {
-        if (HookHandler.requestCache.get() != null && HookHandler.responseCache.get() != null) {
-            String contentType = HookHandler.responseCache.get().getContentType();
+        if (HookHandler.getRequestCache() != null && HookHandler.getResponseCache() != null) {
+            String contentType = HookHandler.getResponseCache().getContentType();
             return contentType == null || contentType.startsWith(HttpServletResponse.CONTENT_TYPE_HTML_VALUE);
         }
         return false;
@@ -34,11 +34,11 @@ public class ApplicationFilterHook extends ServerRequestHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassSuffixes()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.endsWith("apache/catalina/core/ApplicationFilterChain");
+    public String[] getMatchedClassSuffixes() {
+        return new String[]{"apache/catalina/core/ApplicationFilterChain"};
     }
 
     /**
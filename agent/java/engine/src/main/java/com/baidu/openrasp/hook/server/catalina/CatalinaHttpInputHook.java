@@ -31,21 +31,17 @@ import java.io.IOException;
 @HookAnnotation
 public class CatalinaHttpInputHook extends ServerInputHook {
 
-    private String className;
-
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        if ("org/apache/catalina/connector/InputBuffer".equals(className)
-                || "org/apache/catalina/connector/CoyoteReader".equals(className)) {
-            this.className = className;
-            return true;
-        }
-        return false;
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "org/apache/catalina/connector/InputBuffer",
+                "org/apache/catalina/connector/CoyoteReader"
+        };
     }
 
     /**
@@ -55,7 +51,7 @@ public class CatalinaHttpInputHook extends ServerInputHook {
      */
     @Override
     protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
-        if (className.equals("org/apache/catalina/connector/InputBuffer")) {
+        if ("org.apache.catalina.connector.InputBuffer".equals(ctClass.getName())) {
             String readByteSrc = getInvokeStaticSrc(ServerInputHook.class, "onInputStreamRead",
                     "$_,$0", int.class, Object.class);
             insertAfter(ctClass, "readByte", "()I", readByteSrc);
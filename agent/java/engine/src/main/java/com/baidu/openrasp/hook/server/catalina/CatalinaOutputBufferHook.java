@@ -33,11 +33,11 @@ public class CatalinaOutputBufferHook extends ServerOutputCloseHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/catalina/connector/OutputBuffer".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/catalina/connector/OutputBuffer"};
     }
 
     @Override
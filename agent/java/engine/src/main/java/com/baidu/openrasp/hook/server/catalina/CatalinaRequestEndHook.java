@@ -32,8 +32,8 @@ import java.io.IOException;
 @HookAnnotation
 public class CatalinaRequestEndHook extends ServerRequestEndHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return className.endsWith("apache/catalina/core/ApplicationFilterChain");
+    public String[] getMatchedClassSuffixes() {
+        return new String[]{"apache/catalina/core/ApplicationFilterChain"};
     }
     @Override
     protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
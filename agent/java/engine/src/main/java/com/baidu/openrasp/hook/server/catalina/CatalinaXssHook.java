@@ -42,8 +42,8 @@ import java.util.HashMap;
 public class CatalinaXssHook extends ServerXssHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/coyote/Response".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/coyote/Response"};
     }
 
     @Override
@@ -58,7 +58,7 @@ public class CatalinaXssHook extends ServerXssHook {
             HookHandler.disableBodyXssHook();
             HashMap<String, Object> params = new HashMap<String, Object>();
             try {
-                HttpServletResponse res = HookHandler.responseCache.get();
+                HttpServletResponse res = HookHandler.getResponseCache();
                 String enc = null;
                 if (res != null) {
                     enc = res.getCharacterEncoding();
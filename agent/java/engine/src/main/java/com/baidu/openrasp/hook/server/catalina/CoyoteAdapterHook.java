@@ -36,11 +36,11 @@ public class CoyoteAdapterHook extends ServerPreRequestHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassSuffixes()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.endsWith("apache/catalina/connector/CoyoteAdapter");
+    public String[] getMatchedClassSuffixes() {
+        return new String[]{"apache/catalina/connector/CoyoteAdapter"};
     }
 
     /**
@@ -40,8 +40,8 @@ public class JettyHttpInputHook extends ServerInputHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.equals("org/eclipse/jetty/server/HttpInput");
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/eclipse/jetty/server/HttpInput"};
     }
 
     /**
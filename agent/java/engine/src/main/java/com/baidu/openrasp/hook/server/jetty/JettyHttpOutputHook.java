@@ -37,8 +37,8 @@ public class JettyHttpOutputHook extends ServerOutputCloseHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/eclipse/jetty/server/HttpOutput".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/eclipse/jetty/server/HttpOutput"};
     }
 
     @Override
@@ -32,8 +32,8 @@ import java.io.IOException;
 @HookAnnotation
 public class JettyRequestEndHook extends ServerRequestEndHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return className.equals("org/eclipse/jetty/server/handler/HandlerWrapper");
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/eclipse/jetty/server/handler/HandlerWrapper"};
     }
 
     @Override
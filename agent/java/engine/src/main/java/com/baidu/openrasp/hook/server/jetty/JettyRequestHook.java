@@ -37,8 +37,8 @@ public class JettyRequestHook extends ServerParamHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/eclipse/jetty/server/Request".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/eclipse/jetty/server/Request"};
     }
 
     @Override
@@ -43,8 +43,8 @@ public class JettyServerHandleHook extends ServerRequestHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.equals("org/eclipse/jetty/server/handler/HandlerWrapper");
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/eclipse/jetty/server/handler/HandlerWrapper"};
     }
 
     /**
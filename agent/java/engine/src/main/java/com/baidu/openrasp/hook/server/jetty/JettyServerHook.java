@@ -36,8 +36,8 @@ public class JettyServerHook extends ServerPreRequestHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.equals("org/eclipse/jetty/server/Server");
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/eclipse/jetty/server/Server"};
     }
 
     /**
@@ -39,11 +39,13 @@ import java.util.HashMap;
 public class JettyXssHook extends ServerXssHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/eclipse/jetty/server/AbstractHttpConnection".equals(className) ||
-                "org/eclipse/jetty/server/Utf8HttpWriter".equals(className) ||
-                "org/eclipse/jetty/server/Iso88591HttpWriter".equals(className) ||
-                "org/eclipse/jetty/server/EncodingHttpWriter".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "org/eclipse/jetty/server/AbstractHttpConnection",
+                "org/eclipse/jetty/server/Utf8HttpWriter",
+                "org/eclipse/jetty/server/Iso88591HttpWriter",
+                "org/eclipse/jetty/server/EncodingHttpWriter"
+        };
     }
 
     @Override
@@ -67,7 +69,7 @@ public class JettyXssHook extends ServerXssHook {
             LogTool.traceHookWarn(ApplicationModel.getServerName() + " xss detectde failed: " +
                     e.getMessage(), e);
         }
-        if (HookHandler.requestCache.get() != null && !params.isEmpty()) {
+        if (HookHandler.getRequestCache() != null && !params.isEmpty()) {
             HookHandler.doCheck(CheckParameter.Type.XSS_USERINPUT, params);
         }
     }
@@ -39,10 +39,12 @@ public class ResinHttpInputHook extends ServerInputHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.equals("com/caucho/server/connection/ServletInputStreamImpl")
-                || className.equals("com/caucho/server/http/ServletInputStreamImpl")
-                || className.equals("com/caucho/vfs/BufferedReaderAdapter");
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/caucho/server/connection/ServletInputStreamImpl",
+                "com/caucho/server/http/ServletInputStreamImpl",
+                "com/caucho/vfs/BufferedReaderAdapter"
+        };
     }
 
     @Override
@@ -37,9 +37,11 @@ public class ResinOutputCloseHook extends ServerOutputCloseHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/connection/AbstractHttpResponse".equals(className)
-                || "com/caucho/server/http/AbstractHttpResponse".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/caucho/server/connection/AbstractHttpResponse",
+                "com/caucho/server/http/AbstractHttpResponse"
+        };
     }
 
     @Override
@@ -37,9 +37,11 @@ public class ResinParseParamHook extends ServerParamHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/connection/AbstractHttpRequest".equals(className)
-                || "com/caucho/server/http/AbstractCauchoRequest".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/caucho/server/connection/AbstractHttpRequest",
+                "com/caucho/server/http/AbstractCauchoRequest"
+        };
     }
 
     @Override
@@ -37,8 +37,8 @@ public class ResinPreRequestHook extends ServerPreRequestHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/http/HttpRequest".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/caucho/server/http/HttpRequest"};
     }
 
     @Override
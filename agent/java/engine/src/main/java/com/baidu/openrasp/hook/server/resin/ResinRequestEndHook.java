@@ -33,8 +33,8 @@ import java.io.IOException;
 public class ResinRequestEndHook extends ServerRequestEndHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/dispatch/ServletInvocation".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/caucho/server/dispatch/ServletInvocation"};
     }
 
     @Override
@@ -39,8 +39,8 @@ public class ResinRequestHook extends ServerRequestHook {
      * @see AbstractClassHook#isClassMatched(String)
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/dispatch/ServletInvocation".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/caucho/server/dispatch/ServletInvocation"};
     }
 
     /**
@@ -38,9 +38,11 @@ import java.util.HashMap;
 public class ResinXssHook extends ServerXssHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/caucho/server/http/ToByteResponseStream".equals(className) ||
-                "com/caucho/server/connection/ToByteResponseStream".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/caucho/server/http/ToByteResponseStream",
+                "com/caucho/server/connection/ToByteResponseStream"
+        };
     }
 
     @Override
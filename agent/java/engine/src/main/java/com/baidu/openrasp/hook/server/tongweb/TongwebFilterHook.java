@@ -20,11 +20,11 @@ public class TongwebFilterHook extends ServerRequestHook {
 	/**
 	 * (none-javadoc)
 	 *
-	 * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+	 * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassSuffixes()
 	 */
 	@Override
-	public boolean isClassMatched(String className) {
-		return className.endsWith("com/tongweb/web/thor/core/ApplicationFilterChain");
+	public String[] getMatchedClassSuffixes() {
+		return new String[]{"com/tongweb/web/thor/core/ApplicationFilterChain"};
 	}
 
 	/**
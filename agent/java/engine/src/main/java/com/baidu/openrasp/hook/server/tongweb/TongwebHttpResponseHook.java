@@ -15,19 +15,17 @@ import com.baidu.openrasp.tool.annotation.HookAnnotation;
 @HookAnnotation
 public class TongwebHttpResponseHook extends ServerOutputCloseHook {
 
-    public static String clazzName = null;
+    public static volatile String clazzName = null;
 
 	@Override
-	public boolean isClassMatched(String className) {
-        if ("com/tongweb/web/thor/connector/Response".equals(className)) {
-            clazzName = className;
-            return true;
-        }
-        return false;	
-    }
-    
+	public String[] getMatchedClassNames() {
+		return new String[]{"com/tongweb/web/thor/connector/Response"};
+	}
+
 	@Override
 	protected void hookMethod(CtClass ctClass, String src) throws NotFoundException, CannotCompileException {
+        // 记录 hook 成功的类，用于判断输出流是否已关闭
+        clazzName = "com/tongweb/web/thor/connector/Response";
         insertBefore(ctClass, "finishResponse", "()V", src);
 	}
 
@@ -21,11 +21,11 @@ public class TongwebInputBufferHook extends ServerInputHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/tongweb/web/thor/connector/InputBuffer".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/tongweb/web/thor/connector/InputBuffer"};
     }
 
     /**
@@ -18,11 +18,11 @@ public class TongwebPreRequestHook extends ServerPreRequestHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassSuffixes()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return className.endsWith("com/tongweb/web/thor/connector/CoyoteAdapter");
+    public String[] getMatchedClassSuffixes() {
+        return new String[]{"com/tongweb/web/thor/connector/CoyoteAdapter"};
     }
 
     /**
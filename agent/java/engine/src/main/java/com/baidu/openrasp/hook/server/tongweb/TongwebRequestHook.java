@@ -18,11 +18,11 @@ public class TongwebRequestHook extends ServerParamHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/tongweb/web/oro/Request".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/tongweb/web/oro/Request"};
     }
 
     @Override
@@ -25,8 +25,8 @@ import java.util.HashMap;
 public class TongwebXssHook extends ServerXssHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/tongweb/web/thor/connector/OutputBuffer".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/tongweb/web/thor/connector/OutputBuffer"};
     }
 
     @Override
@@ -50,7 +50,7 @@ public class TongwebXssHook extends ServerXssHook {
                     LogTool.traceHookWarn(ApplicationModel.getServerName() + " xss detectde failed: " +
                             e.getMessage(), e);
                 }
-                if (HookHandler.requestCache.get() != null && !params.isEmpty()) {
+                if (HookHandler.getRequestCache() != null && !params.isEmpty()) {
                     HookHandler.doCheck(CheckParameter.Type.XSS_USERINPUT, params);
                 }
             }
@@ -34,8 +34,8 @@ import java.io.IOException;
 public class WeblogicHttpInputHook extends ServerInputHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/ServletInputStreamImpl".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/ServletInputStreamImpl"};
     }
 
     @Override
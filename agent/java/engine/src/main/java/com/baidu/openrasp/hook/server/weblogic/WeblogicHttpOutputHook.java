@@ -29,19 +29,17 @@ import javassist.NotFoundException;
  */
 @HookAnnotation
 public class WeblogicHttpOutputHook extends ServerOutputCloseHook {
-    public static String clazzName = null;
+    public static volatile String clazzName = null;
 
     @Override
-    public boolean isClassMatched(String className) {
-        if ("weblogic/servlet/internal/ServletOutputStreamImpl".equals(className)) {
-            clazzName = className;
-            return true;
-        }
-        return false;
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/ServletOutputStreamImpl"};
     }
 
     @Override
     protected void hookMethod(CtClass ctClass, String src) throws NotFoundException, CannotCompileException {
+        // 记录 hook 成功的类，用于判断输出流是否已关闭
+        clazzName = "weblogic/servlet/internal/ServletOutputStreamImpl";
         insertBefore(ctClass, "commit", "()V", src);
     }
 }
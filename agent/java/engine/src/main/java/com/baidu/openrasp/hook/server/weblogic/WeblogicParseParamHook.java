@@ -31,8 +31,8 @@ import javassist.NotFoundException;
 public class WeblogicParseParamHook extends ServerParamHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/ServletRequestImpl$RequestParameters".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/ServletRequestImpl$RequestParameters"};
     }
 
     @Override
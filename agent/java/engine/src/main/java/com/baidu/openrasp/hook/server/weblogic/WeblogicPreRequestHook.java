@@ -31,8 +31,8 @@ import javassist.NotFoundException;
 public class WeblogicPreRequestHook extends ServerPreRequestHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/ServletRequestImpl".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/ServletRequestImpl"};
     }
 
     @Override
@@ -32,8 +32,8 @@ import java.io.IOException;
 @HookAnnotation
 public class WeblogicRequestEndHook extends ServerRequestEndHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/WebAppServletContext".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/WebAppServletContext"};
     }
 
     @Override
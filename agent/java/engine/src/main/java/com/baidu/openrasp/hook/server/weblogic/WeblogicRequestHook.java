@@ -35,11 +35,11 @@ public class WeblogicRequestHook extends ServerRequestHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/WebAppServletContext".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/WebAppServletContext"};
     }
 
     /**
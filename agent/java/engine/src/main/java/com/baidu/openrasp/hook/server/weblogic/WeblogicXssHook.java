@@ -38,8 +38,8 @@ import java.util.HashMap;
 @HookAnnotation
 public class WeblogicXssHook extends ServerXssHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/servlet/internal/CharsetChunkOutput".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/servlet/internal/CharsetChunkOutput"};
     }
 
     @Override
@@ -33,8 +33,8 @@ import java.io.IOException;
 @HookAnnotation
 public class WebsphereHttpInputHook extends ServerInputHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ibm/ws/webcontainer/srt/http/HttpInputStream".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ibm/ws/webcontainer/srt/http/HttpInputStream"};
     }
 
     @Override
@@ -30,19 +30,17 @@ import javassist.NotFoundException;
 @HookAnnotation
 public class WebsphereHttpOutputHook extends ServerOutputCloseHook {
 
-    public static String clazzName = null;
+    public static volatile String clazzName = null;
 
     @Override
-    public boolean isClassMatched(String className) {
-        if ("com/ibm/ws/webcontainer/srt/SRTServletResponse".equals(className)) {
-            clazzName = className;
-            return true;
-        }
-        return false;
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ibm/ws/webcontainer/srt/SRTServletResponse"};
     }
 
     @Override
     protected void hookMethod(CtClass ctClass, String src) throws NotFoundException, CannotCompileException {
+        // 记录 hook 成功的类，用于判断输出流是否已关闭
+        clazzName = "com/ibm/ws/webcontainer/srt/SRTServletResponse";
         insertBefore(ctClass, "finish", "()V", src);
     }
 }
@@ -31,8 +31,8 @@ import javassist.NotFoundException;
 public class WebsphereParseParamHook extends ServerParamHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ibm/ws/webcontainer/srt/SRTServletRequest".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ibm/ws/webcontainer/srt/SRTServletRequest"};
     }
 
     @Override
@@ -36,8 +36,8 @@ public class WebspherePreRequestHook extends ServerPreRequestHook {
     }
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ibm/ws/webcontainer/WebContainer".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ibm/ws/webcontainer/WebContainer"};
     }
 
     @Override
@@ -32,10 +32,12 @@ import java.io.IOException;
 @HookAnnotation
 public class WebsphereRequestEndHook extends ServerRequestEndHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ibm/ws/webcontainer/filter/WebAppFilterManager".equals(className)
-                || "com/ibm/ws/webcontainer/webapp/WebApp".equals(className)
-                || "com/ibm/ws/webcontainer/servlet/CacheServletWrapper".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/ibm/ws/webcontainer/filter/WebAppFilterManager",
+                "com/ibm/ws/webcontainer/webapp/WebApp",
+                "com/ibm/ws/webcontainer/servlet/CacheServletWrapper"
+        };
     }
 
     @Override
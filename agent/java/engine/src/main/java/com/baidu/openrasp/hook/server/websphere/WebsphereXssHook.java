@@ -38,8 +38,8 @@ import java.util.HashMap;
 @HookAnnotation
 public class WebsphereXssHook extends ServerXssHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ibm/wsspi/webcontainer/util/BufferedWriter".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ibm/wsspi/webcontainer/util/BufferedWriter"};
     }
 
     @Override
@@ -38,8 +38,8 @@ public class UndertowInputHook extends ServerInputHook {
      * @return 是否匹配
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/servlet/spec/ServletInputStreamImpl".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"io/undertow/servlet/spec/ServletInputStreamImpl"};
     }
 
     /**
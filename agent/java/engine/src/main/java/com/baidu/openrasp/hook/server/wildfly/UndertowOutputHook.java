@@ -36,8 +36,8 @@ public class UndertowOutputHook extends ServerOutputCloseHook {
      * @return 是否匹配
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/servlet/spec/ServletPrintWriter".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"io/undertow/servlet/spec/ServletPrintWriter"};
     }
 
     /**
@@ -30,8 +30,8 @@ import javassist.NotFoundException;
 public class UndertowParamHook extends ServerParamHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/server/HttpServerExchange".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"io/undertow/server/HttpServerExchange"};
     }
 
     /**
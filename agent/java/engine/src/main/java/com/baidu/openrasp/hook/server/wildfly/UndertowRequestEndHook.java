@@ -32,8 +32,8 @@ import java.io.IOException;
 @HookAnnotation
 public class UndertowRequestEndHook extends ServerRequestEndHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/servlet/handlers/ServletInitialHandler".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"io/undertow/servlet/handlers/ServletInitialHandler"};
     }
     @Override
     protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
@@ -38,8 +38,8 @@ public class UndertowRequestHook extends ServerRequestHook {
      * @return 是否匹配
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/servlet/handlers/ServletInitialHandler".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"io/undertow/servlet/handlers/ServletInitialHandler"};
     }
 
     /**
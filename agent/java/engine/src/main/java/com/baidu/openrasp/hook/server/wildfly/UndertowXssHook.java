@@ -38,8 +38,8 @@ import java.util.HashMap;
 @HookAnnotation
 public class UndertowXssHook extends ServerXssHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "io/undertow/servlet/spec/ServletPrintWriter".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"io/undertow/servlet/spec/ServletPrintWriter"};
     }
 
     @Override
@@ -62,7 +62,7 @@ public class UndertowXssHook extends ServerXssHook {
                     LogTool.traceHookWarn(ApplicationModel.getServerName() + " xss detectde failed: " +
                             e.getMessage(), e);
                 }
-                if (HookHandler.requestCache.get() != null && !params.isEmpty()) {
+                if (HookHandler.getRequestCache() != null && !params.isEmpty()) {
                     HookHandler.doCheck(CheckParameter.Type.XSS_USERINPUT, params);
                 }
             }
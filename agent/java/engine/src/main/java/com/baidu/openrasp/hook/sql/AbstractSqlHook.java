@@ -19,12 +19,14 @@ package com.baidu.openrasp.hook.sql;
 import com.baidu.openrasp.HookHandler;
 import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.hook.AbstractClassHook;
+import com.baidu.openrasp.hook.ClassMatch;
 import com.baidu.openrasp.messaging.ErrorType;
 import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
 import javassist.*;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -44,25 +46,73 @@ public abstract class AbstractSqlHook extends AbstractClassHook {
     static final String SQL_TYPE_DB2 = "db2";
     static final String SQL_TYPE_HSQL = "hsql";
 
-    protected String type;
-    protected String[] exceptions;
+    /**
+     * 根据类名获取数据库类型
+     *
+     * @param className 以 / 分隔的类名
+     * @return 数据库类型，不是需要 hook 的类返回 null
+     */
+    protected abstract String getSqlType(String className);
+
+    /**
+     * (none-javadoc)
+     *
+     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     */
+    @Override
+    public boolean isClassMatched(String className) {
+        return getSqlType(className) != null;
+    }
 
-    public void setType(String type) {
-        this.type = type;
+    /**
+     * (none-javadoc)
+     *
+     * @see com.baidu.openrasp.hook.AbstractClassHook#match(String, ClassLoader)
+     */
+    @Override
+    public ClassMatch match(String className, ClassLoader loader) {
+        String type = getSqlType(className);
+        return type != null ? new SqlClassMatch(className, loader, type) : null;
     }
 
-    public String[] getExceptions() {
-        return exceptions;
+    /**
+     * 数据库类型和类加载器只能从匹配结果中获取，sql hook 点必须通过
+     * {@link #hookMethod(CtClass, ClassMatch)} 转换
+     *
+     * @see com.baidu.openrasp.hook.AbstractClassHook#hookMethod(CtClass)
+     */
+    @Override
+    protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
+        throw new UnsupportedOperationException("sql hook requires the class match result to transform "
+                + ctClass.getName());
     }
 
-    public void setExceptions(String[] exceptions) {
-        this.exceptions = exceptions;
+    /**
+     * (none-javadoc)
+     *
+     * @see com.baidu.openrasp.hook.AbstractClassHook#hookMethod(CtClass, ClassMatch)
+     */
+    @Override
+    protected void hookMethod(CtClass ctClass, ClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException {
+        if (match instanceof SqlClassMatch) {
+            hookMethod(ctClass, (SqlClassMatch) match);
+        }
     }
 
+    /**
+     * hook 目标类的函数
+     *
+     * @param ctClass 目标类
+     * @param match   包含数据库类型的匹配结果
+     */
+    protected abstract void hookMethod(CtClass ctClass, SqlClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException;
+
     /**
      * 捕捉sql statement抛出的异常
      */
-    public void addCatch(CtClass ctClass, String methodName, String[] descs) throws NotFoundException, CannotCompileException {
+    public void addCatch(CtClass ctClass, String type, String methodName, String[] descs) throws NotFoundException, CannotCompileException {
         //目前只支持对mysql的执行异常检测
         if ("mysql".equals(type)) {
             for (String desc : descs) {
@@ -85,7 +135,7 @@ public abstract class AbstractSqlHook extends AbstractClassHook {
     /**
      * 捕捉sql preparedStatement抛出的异常
      */
-    public void addCatch(CtClass ctClass, String methodName, String desc, String query) throws NotFoundException, CannotCompileException {
+    public void addCatch(CtClass ctClass, String type, String methodName, String desc, String query) throws NotFoundException, CannotCompileException {
         //目前只支持对mysql的执行异常检测
         if ("mysql".equals(type)) {
             LinkedList<CtBehavior> methods = getMethod(ctClass, methodName, desc);
@@ -133,4 +183,22 @@ public abstract class AbstractSqlHook extends AbstractClassHook {
             HookHandler.doCheck(CheckParameter.Type.SQL_EXCEPTION, params);
         }
     }
+
+    /**
+     * sql 相关 hook 点的匹配结果，包含匹配到的类所属的数据库类型
+     */
+    protected static final class SqlClassMatch extends ClassMatch {
+
+        private final String type;
+
+        SqlClassMatch(String className, ClassLoader loader, String type) {
+            super(className, loader);
+            this.type = type;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
 }
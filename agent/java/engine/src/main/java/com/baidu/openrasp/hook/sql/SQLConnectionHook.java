@@ -40,13 +40,15 @@ import java.util.StringTokenizer;
 @HookAnnotation
 public class SQLConnectionHook extends AbstractClassHook {
     private static final String DEFAULT_MYSQL_PORT = "3306";
-    private String type;
+    // 目前只 hook 了 mysql 驱动
+    private static final String SQL_TYPE_MYSQL = "mysql";
 
     @Override
-    public boolean isClassMatched(String className) {
-        this.type = "mysql";
-        return "com/mysql/jdbc/NonRegisteringDriver".equals(className) ||
-                "com/mysql/cj/jdbc/NonRegisteringDriver".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/mysql/jdbc/NonRegisteringDriver",
+                "com/mysql/cj/jdbc/NonRegisteringDriver"
+        };
     }
 
     @Override
@@ -140,14 +142,12 @@ public class SQLConnectionHook extends AbstractClassHook {
      * 捕捉hook method抛出的异常
      */
     public void addCatch(CtClass ctClass, String methodName, String desc) throws NotFoundException, CannotCompileException {
-        if ("mysql".equals(this.type)) {
-            LinkedList<CtBehavior> methods = getMethod(ctClass, methodName, desc);
-            if (methods != null && methods.size() > 0) {
-                for (CtBehavior method : methods) {
-                    if (method != null) {
-                        String errorSrc = "com.baidu.openrasp.hook.sql.SQLConnectionHook.checkSQLErrorCode(" + "\"" + type + "\"" + ",$e,$args);";
-                        method.addCatch("{" + errorSrc + " throw $e;}", ClassPool.getDefault().get("java.sql.SQLException"));
-                    }
+        LinkedList<CtBehavior> methods = getMethod(ctClass, methodName, desc);
+        if (methods != null && methods.size() > 0) {
+            for (CtBehavior method : methods) {
+                if (method != null) {
+                    String errorSrc = "com.baidu.openrasp.hook.sql.SQLConnectionHook.checkSQLErrorCode(" + "\"" + SQL_TYPE_MYSQL + "\"" + ",$e,$args);";
+                    method.addCatch("{" + errorSrc + " throw $e;}", ClassPool.getDefault().get("java.sql.SQLException"));
                 }
             }
         }
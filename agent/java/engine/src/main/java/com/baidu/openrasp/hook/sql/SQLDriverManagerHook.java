@@ -72,11 +72,11 @@ public class SQLDriverManagerHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return classList.contains(className);
+    public String[] getMatchedClassNames() {
+        return classList.toArray(new String[classList.size()]);
     }
 
     /**
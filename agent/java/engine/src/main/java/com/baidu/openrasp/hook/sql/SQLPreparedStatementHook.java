@@ -31,39 +31,48 @@ import java.io.IOException;
 @HookAnnotation
 public class SQLPreparedStatementHook extends AbstractSqlHook {
 
-    private String className;
+    @Override
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/mysql/jdbc/PreparedStatement",
+                "com/mysql/cj/jdbc/PreparedStatement",
+                "org/sqlite/PrepStmt",
+                "org/sqlite/jdbc3/JDBC3PreparedStatement",
+                "oracle/jdbc/driver/OraclePreparedStatement",
+                "com/microsoft/sqlserver/jdbc/SQLServerPreparedStatement",
+                "org/postgresql/jdbc/PgPreparedStatement",
+                "org/postgresql/jdbc1/AbstractJdbc1Statement",
+                "org/postgresql/jdbc2/AbstractJdbc2Statement",
+                "org/postgresql/jdbc3/AbstractJdbc3Statement",
+                "org/postgresql/jdbc3g/AbstractJdbc3gStatement",
+                "org/postgresql/jdbc4/AbstractJdbc4Statement",
+                "org/hsqldb/jdbc/JDBCPreparedStatement"
+        };
+    }
 
     @Override
-    public boolean isClassMatched(String className) {
+    protected String getSqlType(String className) {
 
         /* MySQL */
         if ("com/mysql/jdbc/PreparedStatement".equals(className)
                 || "com/mysql/cj/jdbc/PreparedStatement".equals(className)) {
-            this.type = SQL_TYPE_MYSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_MYSQL;
         }
 
         /* SQLite */
         if ("org/sqlite/PrepStmt".equals(className)
                 || "org/sqlite/jdbc3/JDBC3PreparedStatement".equals(className)) {
-            this.type = SQL_TYPE_SQLITE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_SQLITE;
         }
 
         /* Oracle */
         if ("oracle/jdbc/driver/OraclePreparedStatement".equals(className)) {
-            this.type = SQL_TYPE_ORACLE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_ORACLE;
         }
 
         /* SQL Server */
         if ("com/microsoft/sqlserver/jdbc/SQLServerPreparedStatement".equals(className)) {
-            this.type = SQL_TYPE_SQLSERVER;
-            this.exceptions = new String[]{"com/microsoft/sqlserver/jdbc/SQLServerException"};
-            return true;
+            return SQL_TYPE_SQLSERVER;
         }
 
         /* PostgreSQL */
@@ -73,20 +82,15 @@ public class SQLPreparedStatementHook extends AbstractSqlHook {
                 || "org/postgresql/jdbc3/AbstractJdbc3Statement".equals(className)
                 || "org/postgresql/jdbc3g/AbstractJdbc3gStatement".equals(className)
                 || "org/postgresql/jdbc4/AbstractJdbc4Statement".equals(className)) {
-            this.className = className;
-            this.type = SQL_TYPE_PGSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_PGSQL;
         }
 
          /* HSqlDB */
         if ("org/hsqldb/jdbc/JDBCPreparedStatement".equals(className)) {
-            this.type = SQL_TYPE_HSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_HSQL;
         }
 
-        return false;
+        return null;
     }
 
     /**
@@ -102,30 +106,33 @@ public class SQLPreparedStatementHook extends AbstractSqlHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#hookMethod(CtClass)
+     * @see com.baidu.openrasp.hook.sql.AbstractSqlHook#hookMethod(CtClass, SqlClassMatch)
      */
     @Override
-    protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
-        hookSqlPreparedStatementMethod(ctClass);
+    protected void hookMethod(CtClass ctClass, SqlClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException {
+        hookSqlPreparedStatementMethod(ctClass, match);
     }
 
-    private void hookSqlPreparedStatementMethod(CtClass ctClass) throws NotFoundException, CannotCompileException {
+    private void hookSqlPreparedStatementMethod(CtClass ctClass, SqlClassMatch match)
+            throws NotFoundException, CannotCompileException {
+        String type = match.getType();
         String originalSqlCode = null;
 //        String checkSqlSrc = null;
-        if (SQL_TYPE_MYSQL.equals(this.type)) {
+        if (SQL_TYPE_MYSQL.equals(type)) {
             originalSqlCode = "originalSql";
-        } else if (SQL_TYPE_SQLITE.equals(this.type)
-                || SQL_TYPE_HSQL.equals(this.type)) {
+        } else if (SQL_TYPE_SQLITE.equals(type)
+                || SQL_TYPE_HSQL.equals(type)) {
             originalSqlCode = "this.sql";
-        } else if (SQL_TYPE_SQLSERVER.equals(this.type)) {
+        } else if (SQL_TYPE_SQLSERVER.equals(type)) {
             originalSqlCode = "preparedSQL";
-        } else if (SQL_TYPE_PGSQL.equals(this.type)) {
-            if ("org/postgresql/jdbc/PgPreparedStatement".equals(className)) {
+        } else if (SQL_TYPE_PGSQL.equals(type)) {
+            if ("org/postgresql/jdbc/PgPreparedStatement".equals(match.getClassName())) {
                 originalSqlCode = "preparedQuery.query.toString(preparedQuery.query.createParameterList())";
             } else {
                 originalSqlCode = "preparedQuery.toString(preparedQuery.createParameterList())";
             }
-        } else if (SQL_TYPE_ORACLE.equals(this.type)) {
+        } else if (SQL_TYPE_ORACLE.equals(type)) {
             originalSqlCode = "this.sqlObject.getOriginalSql()";
         }
         if (originalSqlCode != null) {
@@ -139,13 +146,13 @@ public class SQLPreparedStatementHook extends AbstractSqlHook {
 //            } catch (CannotCompileException e) {
 //                insertBefore(ctClass, "executeBatchInternal", null, checkSqlSrc);
 //            }
-            addCatch(ctClass, "execute", null, originalSqlCode);
-            addCatch(ctClass, "executeUpdate", null, originalSqlCode);
-            addCatch(ctClass, "executeQuery", null, originalSqlCode);
+            addCatch(ctClass, type, "execute", null, originalSqlCode);
+            addCatch(ctClass, type, "executeUpdate", null, originalSqlCode);
+            addCatch(ctClass, type, "executeQuery", null, originalSqlCode);
             try {
-                addCatch(ctClass, "executeBatch", null, originalSqlCode);
+                addCatch(ctClass, type, "executeBatch", null, originalSqlCode);
             } catch (CannotCompileException e) {
-                addCatch(ctClass, "executeBatchInternal", null, originalSqlCode);
+                addCatch(ctClass, type, "executeBatchInternal", null, originalSqlCode);
             }
         }
 //        else if (SQL_TYPE_DB2.equals(this.type)) {
@@ -17,13 +17,14 @@
 package com.baidu.openrasp.hook.sql;
 
 import com.baidu.openrasp.HookHandler;
+import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
+import com.baidu.openrasp.tool.WeakIdentityMap;
 import javassist.CannotCompileException;
 import javassist.CtClass;
 import javassist.NotFoundException;
 
 import java.io.IOException;
-import java.sql.ResultSet;
 import java.util.HashMap;
 
 /**
@@ -32,41 +33,77 @@ import java.util.HashMap;
  */
 public class SQLResultSetHook extends AbstractSqlHook {
 
+    // 每个 ResultSet 已经读取的行数，已经检测过的 ResultSet 计数为 -1
+    // ResultSet 通常只在一个线程中遍历，按线程保存避免加锁，弱引用不影响 ResultSet 回收
+    // 按引用区分 ResultSet，不调用驱动实现的 hashCode 和 equals
+    private static final ThreadLocal<WeakIdentityMap<int[]>> rowCounters =
+            new ThreadLocal<WeakIdentityMap<int[]>>() {
+                @Override
+                protected WeakIdentityMap<int[]> initialValue() {
+                    return new WeakIdentityMap<int[]>();
+                }
+            };
+
+    /**
+     * (none-javadoc)
+     *
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
+     */
+    @Override
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/mysql/jdbc/ResultSetImpl",
+                "com/mysql/cj/jdbc/result/ResultSetImpl",
+                "org/sqlite/RS",
+                "org/sqlite/jdbc3/JDBC3ResultSet",
+                "oracle/jdbc/driver/OracleResultSetImpl",
+                "com/microsoft/sqlserver/jdbc/SQLServerResultSet",
+                "org/postgresql/jdbc/PgResultSet",
+                "org/postgresql/jdbc1/AbstractJdbc1ResultSet",
+                "org/postgresql/jdbc2/AbstractJdbc2ResultSet",
+                "org/postgresql/jdbc3/AbstractJdbc3ResultSet",
+                "org/postgresql/jdbc3g/AbstractJdbc3gResultSet",
+                "org/postgresql/jdbc4/AbstractJdbc4ResultSet"
+        };
+    }
+
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassPrefixes()
      */
     @Override
-    public boolean isClassMatched(String className) {
+    public String[] getMatchedClassPrefixes() {
+        return new String[]{"com/ibm/db2/jcc/am"};
+    }
+
+    /**
+     * (none-javadoc)
+     *
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getSqlType(String)
+     */
+    @Override
+    protected String getSqlType(String className) {
          /* MySQL */
         if ("com/mysql/jdbc/ResultSetImpl".equals(className)
                 || "com/mysql/cj/jdbc/result/ResultSetImpl".equals(className)) {
-            this.type = SQL_TYPE_MYSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_MYSQL;
         }
 
         /* SQLite */
         if ("org/sqlite/RS".equals(className)
                 || "org/sqlite/jdbc3/JDBC3ResultSet".equals(className)) {
-            this.type = SQL_TYPE_SQLITE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_SQLITE;
         }
 
        /* Oracle */
         if ("oracle/jdbc/driver/OracleResultSetImpl".equals(className)) {
-            this.type = SQL_TYPE_ORACLE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_ORACLE;
         }
 
         /* SQL Server */
         if ("com/microsoft/sqlserver/jdbc/SQLServerResultSet".equals(className)) {
-            this.type = SQL_TYPE_SQLSERVER;
-            this.exceptions = new String[]{"com/microsoft/sqlserver/jdbc/SQLServerException"};
-            return true;
+            return SQL_TYPE_SQLSERVER;
         }
 
         /* PostgreSQL */
@@ -76,19 +113,15 @@ public class SQLResultSetHook extends AbstractSqlHook {
                 || "org/postgresql/jdbc3/AbstractJdbc3ResultSet".equals(className)
                 || "org/postgresql/jdbc3g/AbstractJdbc3gResultSet".equals(className)
                 || "org/postgresql/jdbc4/AbstractJdbc4ResultSet".equals(className)) {
-            this.type = SQL_TYPE_PGSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_PGSQL;
         }
 
         /* DB2 */
         if (className.startsWith("com/ibm/db2/jcc/am")) {
-            this.type = SQL_TYPE_DB2;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_DB2;
         }
 
-        return false;
+        return null;
     }
 
     /**
@@ -104,21 +137,23 @@ public class SQLResultSetHook extends AbstractSqlHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#hookMethod(CtClass)
+     * @see com.baidu.openrasp.hook.sql.AbstractSqlHook#hookMethod(CtClass, SqlClassMatch)
      */
     @Override
-    protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
+    protected void hookMethod(CtClass ctClass, SqlClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException {
+        String type = match.getType();
         CtClass[] interfaces = ctClass.getInterfaces();
-        if (this.type.equals(SQL_TYPE_DB2) && interfaces != null) {
+        if (SQL_TYPE_DB2.equals(type) && interfaces != null) {
             for (CtClass inter : interfaces) {
                 if (inter.getName().equals("com.ibm.db2.jcc.DB2ResultSet")) {
                     if (interfaces.length > 3) {
-                        hookSqlResultMethod(ctClass);
+                        hookSqlResultMethod(ctClass, type);
                     }
                 }
             }
         } else {
-            hookSqlResultMethod(ctClass);
+            hookSqlResultMethod(ctClass, type);
         }
     }
 
@@ -126,8 +161,9 @@ public class SQLResultSetHook extends AbstractSqlHook {
      * 用于 hook Sql 检测结果的 next 方法
      *
      * @param ctClass sql 加测结果类
+     * @param type    数据库类型
      */
-    private void hookSqlResultMethod(CtClass ctClass) throws NotFoundException, CannotCompileException {
+    private void hookSqlResultMethod(CtClass ctClass, String type) throws NotFoundException, CannotCompileException {
         String src = getInvokeStaticSrc(SQLResultSetHook.class, "checkSqlQueryResult",
                 "\"" + type + "\"" + ",$0", String.class, Object.class);
         insertBefore(ctClass, "next", "()Z", src);
@@ -135,20 +171,32 @@ public class SQLResultSetHook extends AbstractSqlHook {
 
     /**
      * 检测数据库查询结果
+     * 每次调用 next 只在当前线程的计数表中累加，读取的行数达到 sql.slowquery.min_rows 时检测一次，
+     * 不再每行都调用 getRow 和检测流程
      *
      * @param sqlResultSet 数据库查询结果
      */
     public static void checkSqlQueryResult(String server, Object sqlResultSet) {
-        HashMap<String, Object> params = new HashMap<String, Object>();
-        try {
-            ResultSet resultSet = (ResultSet) sqlResultSet;
-            int queryCount = resultSet.getRow();
+        WeakIdentityMap<int[]> counters = rowCounters.get();
+        int[] counter = counters.get(sqlResultSet);
+        if (counter == null) {
+            counter = new int[]{0};
+            counters.put(sqlResultSet, counter);
+        }
+        int queryCount = counter[0];
+        if (queryCount < 0) {
+            return;
+        }
+        // 在 next 之前调用，计数代表已经读取的行数，与原来 getRow 的返回值一致
+        if (queryCount == Config.getConfig().getSqlSlowQueryMinCount()) {
+            counter[0] = -1;
+            HashMap<String, Object> params = new HashMap<String, Object>();
             params.put("query_count", queryCount);
             params.put("server", server);
-        } catch (Exception e) {
-            e.printStackTrace();
+            HookHandler.doCheck(CheckParameter.Type.SQL_SLOW_QUERY, params);
+        } else {
+            counter[0] = queryCount + 1;
         }
-        HookHandler.doCheck(CheckParameter.Type.SQL_SLOW_QUERY, params);
     }
 
 }
@@ -44,35 +44,51 @@ public class SQLStatementHook extends AbstractSqlHook {
     }
 
     @Override
-    public boolean isClassMatched(String className) {
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/mysql/jdbc/StatementImpl",
+                "com/mysql/cj/jdbc/StatementImpl",
+                "org/sqlite/Stmt",
+                "org/sqlite/jdbc3/JDBC3Statement",
+                "oracle/jdbc/driver/OracleStatement",
+                "com/microsoft/sqlserver/jdbc/SQLServerStatement",
+                "org/postgresql/jdbc/PgStatement",
+                "org/postgresql/jdbc1/AbstractJdbc1Statement",
+                "org/postgresql/jdbc2/AbstractJdbc2Statement",
+                "org/postgresql/jdbc3/AbstractJdbc3Statement",
+                "org/postgresql/jdbc3g/AbstractJdbc3gStatement",
+                "org/postgresql/jdbc4/AbstractJdbc4Statement",
+                "org/hsqldb/jdbc/JDBCStatement"
+        };
+    }
+
+    @Override
+    public String[] getMatchedClassPrefixes() {
+        return new String[]{"com/ibm/db2/jcc/am"};
+    }
+
+    @Override
+    protected String getSqlType(String className) {
         /* MySQL */
         if ("com/mysql/jdbc/StatementImpl".equals(className)
                 || "com/mysql/cj/jdbc/StatementImpl".equals(className)) {
-            this.type = SQL_TYPE_MYSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_MYSQL;
         }
 
         /* SQLite */
         if ("org/sqlite/Stmt".equals(className)
                 || "org/sqlite/jdbc3/JDBC3Statement".equals(className)) {
-            this.type = SQL_TYPE_SQLITE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_SQLITE;
         }
 
         /* Oracle */
         if ("oracle/jdbc/driver/OracleStatement".equals(className)) {
-            this.type = SQL_TYPE_ORACLE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_ORACLE;
         }
 
         /* SQL Server */
         if ("com/microsoft/sqlserver/jdbc/SQLServerStatement".equals(className)) {
-            this.type = SQL_TYPE_SQLSERVER;
-            this.exceptions = new String[]{"com/microsoft/sqlserver/jdbc/SQLServerException"};
-            return true;
+            return SQL_TYPE_SQLSERVER;
         }
 
         /* PostgreSQL */
@@ -82,50 +98,46 @@ public class SQLStatementHook extends AbstractSqlHook {
                 || "org/postgresql/jdbc3/AbstractJdbc3Statement".equals(className)
                 || "org/postgresql/jdbc3g/AbstractJdbc3gStatement".equals(className)
                 || "org/postgresql/jdbc4/AbstractJdbc4Statement".equals(className)) {
-            this.type = SQL_TYPE_PGSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_PGSQL;
         }
 
         /* DB2 */
         if (className != null && className.startsWith("com/ibm/db2/jcc/am")) {
-            this.type = SQL_TYPE_DB2;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_DB2;
         }
 
         /* HSqlDB */
         if ("org/hsqldb/jdbc/JDBCStatement".equals(className)) {
-            this.type = SQL_TYPE_HSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_HSQL;
         }
 
-        return false;
+        return null;
     }
 
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#hookMethod(CtClass)
+     * @see com.baidu.openrasp.hook.sql.AbstractSqlHook#hookMethod(CtClass, SqlClassMatch)
      */
     @Override
-    protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
+    protected void hookMethod(CtClass ctClass, SqlClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException {
+        String type = match.getType();
         CtClass[] interfaces = ctClass.getInterfaces();
-        if (SQL_TYPE_DB2.equals(this.type) && interfaces != null) {
+        if (SQL_TYPE_DB2.equals(type) && interfaces != null) {
             for (CtClass inter : interfaces) {
                 if ("com.ibm.db2.jcc.DB2Statement".equals(inter.getName())) {
                     if (interfaces.length > 2) {
-                        hookSqlStatementMethod(ctClass);
+                        hookSqlStatementMethod(ctClass, type);
                     }
                 }
             }
         } else {
-            hookSqlStatementMethod(ctClass);
+            hookSqlStatementMethod(ctClass, type);
         }
     }
 
-    private void hookSqlStatementMethod(CtClass ctClass) throws NotFoundException, CannotCompileException {
+    private void hookSqlStatementMethod(CtClass ctClass, String type) throws NotFoundException, CannotCompileException {
         String[] executeFuncDescs = new String[]{"(Ljava/lang/String;)Z", "(Ljava/lang/String;I)Z",
                 "(Ljava/lang/String;[I)Z", "(Ljava/lang/String;[Ljava/lang/String;)Z"};
 
@@ -143,10 +155,10 @@ public class SQLStatementHook extends AbstractSqlHook {
         insertBefore(ctClass, "executeQuery", executeQueryFuncDesc, checkSqlSrc);
         insertBefore(ctClass, "addBatch", addBatchFuncDesc, checkSqlSrc);
 
-        addCatch(ctClass, "execute", executeFuncDescs);
-        addCatch(ctClass, "executeUpdate", executeUpdateFuncDescs);
-        addCatch(ctClass, "executeQuery", new String[]{executeQueryFuncDesc});
-        addCatch(ctClass, "addBatch", new String[]{addBatchFuncDesc});
+        addCatch(ctClass, type, "execute", executeFuncDescs);
+        addCatch(ctClass, type, "executeUpdate", executeUpdateFuncDescs);
+        addCatch(ctClass, type, "executeQuery", new String[]{executeQueryFuncDesc});
+        addCatch(ctClass, type, "addBatch", new String[]{addBatchFuncDesc});
     }
 
     /**
@@ -14,62 +14,66 @@ import java.io.IOException;
 public class SqlConnectionPreparedHook extends AbstractSqlHook {
 
     @Override
-    public boolean isClassMatched(String className) {
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/mysql/jdbc/ConnectionImpl",
+                "com/mysql/cj/jdbc/ConnectionImpl",
+                "org/sqlite/Conn",
+                "org/sqlite/jdbc4/JDBC4Connection",
+                "oracle/jdbc/driver/PhysicalConnection",
+                "com/microsoft/sqlserver/jdbc/SQLServerConnection",
+                "org/postgresql/jdbc/PgConnection",
+                "org/postgresql/jdbc3/Jdbc3Connection",
+                "org/postgresql/jdbc4/Jdbc4Connection",
+                "com/ibm/db2/jcc/am/Connection",
+                "org/hsqldb/jdbc/JDBCConnection",
+                "org/hsqldb/jdbc/jdbcConnection"
+        };
+    }
+
+    @Override
+    protected String getSqlType(String className) {
         /* MySQL */
         if ("com/mysql/jdbc/ConnectionImpl".equals(className)
                 || "com/mysql/cj/jdbc/ConnectionImpl".equals(className)) {
-            this.type = SQL_TYPE_MYSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_MYSQL;
         }
 
         /* SQLite */
         if ("org/sqlite/Conn".equals(className)
                 || "org/sqlite/jdbc4/JDBC4Connection".equals(className)) {
-            this.type = SQL_TYPE_SQLITE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_SQLITE;
         }
 
         /* Oracle */
         if ("oracle/jdbc/driver/PhysicalConnection".equals(className)) {
-            this.type = SQL_TYPE_ORACLE;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_ORACLE;
         }
 
         /* SQL Server */
         if ("com/microsoft/sqlserver/jdbc/SQLServerConnection".equals(className)) {
-            this.type = SQL_TYPE_SQLSERVER;
-            this.exceptions = new String[]{"com/microsoft/sqlserver/jdbc/SQLServerException"};
-            return true;
+            return SQL_TYPE_SQLSERVER;
         }
 
         /* PostgreSQL */
         if ("org/postgresql/jdbc/PgConnection".equals(className)
                 || "org/postgresql/jdbc3/Jdbc3Connection".equals(className)
                 || "org/postgresql/jdbc4/Jdbc4Connection".equals(className)) {
-            this.type = SQL_TYPE_PGSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_PGSQL;
         }
 
         /* DB2 */
         if ("com/ibm/db2/jcc/am/Connection".equals(className)) {
-            this.type = SQL_TYPE_DB2;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_DB2;
         }
 
          /* HSqlDB */
         if ("org/hsqldb/jdbc/JDBCConnection".equals(className)
                 || "org/hsqldb/jdbc/jdbcConnection".equals(className)) {
-            this.type = SQL_TYPE_HSQL;
-            this.exceptions = new String[]{"java/sql/SQLException"};
-            return true;
+            return SQL_TYPE_HSQL;
         }
 
-        return false;
+        return null;
     }
 
     @Override
@@ -78,55 +82,57 @@ public class SqlConnectionPreparedHook extends AbstractSqlHook {
     }
 
     @Override
-    protected void hookMethod(CtClass ctClass) throws IOException, CannotCompileException, NotFoundException {
+    protected void hookMethod(CtClass ctClass, SqlClassMatch match)
+            throws IOException, CannotCompileException, NotFoundException {
+        String type = match.getType();
         String checkSqlSrc = getInvokeStaticSrc(SQLStatementHook.class, "checkSQL",
                 "\"" + type + "\"" + ",$0,$1", String.class, Object.class, String.class);
-        if (this.type.equals(SQL_TYPE_MYSQL)) {
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+        if (SQL_TYPE_MYSQL.equals(type)) {
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;II)Ljava/sql/PreparedStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall",
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall",
                     "(Ljava/lang/String;II)Ljava/sql/CallableStatement;", checkSqlSrc);
-        } else if (this.type.equals(SQL_TYPE_SQLITE)) {
+        } else if (SQL_TYPE_SQLITE.equals(type)) {
             // SQLite does not support Stored Procedures
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;III)Ljava/sql/PreparedStatement;", checkSqlSrc);
-        } else if (this.type.equals(SQL_TYPE_ORACLE)) {
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+        } else if (SQL_TYPE_ORACLE.equals(type)) {
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;II)Ljava/sql/PreparedStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall",
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall",
                     "(Ljava/lang/String;II)Ljava/sql/CallableStatement;", checkSqlSrc);
-        } else if (this.type.equals(SQL_TYPE_SQLSERVER)) {
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+        } else if (SQL_TYPE_SQLSERVER.equals(type)) {
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;II)Ljava/sql/PreparedStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;IILcom/microsoft/sqlserver/jdbc/SQLServerStatementColumnEncryptionSetting;)" +
                             "Ljava/sql/PreparedStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;IIILcom/microsoft/sqlserver/jdbc/SQLServerStatementColumnEncryptionSetting;)" +
                             "Ljava/sql/PreparedStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall", "(Ljava/lang/String;II)" +
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall", "(Ljava/lang/String;II)" +
                     "Ljava/sql/CallableStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall",
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall",
                     "(Ljava/lang/String;IIILcom/microsoft/sqlserver/jdbc/SQLServerStatementColumnEncryptionSetting;)" +
                             "Ljava/sql/CallableStatement;", checkSqlSrc);
-        } else if (this.type.equals(SQL_TYPE_PGSQL)) {
-            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+        } else if (SQL_TYPE_PGSQL.equals(type)) {
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
                     "(Ljava/lang/String;III)Ljava/sql/PreparedStatement;", checkSqlSrc);
-//            insertBeforeAndAddCatch(ctClass, "prepareStatement",
+//            insertBeforeAndAddCatch(ctClass, type, "prepareStatement",
 //                    "(Ljava/lang/String;[Ljava/lang/String;)Ljava/sql/PreparedStatement;", checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall",
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall",
                     "(Ljava/lang/String;III)Ljava/sql/CallableStatement;", checkSqlSrc);
-        } else if (this.type.equals(SQL_TYPE_DB2)) {
-            insertBeforeAndAddCatch(ctClass, "prepareStatement", null, checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall", null, checkSqlSrc);
-        } else if (this.type.equals(SQL_TYPE_HSQL)) {
-            insertBeforeAndAddCatch(ctClass, "prepareStatement", null, checkSqlSrc);
-            insertBeforeAndAddCatch(ctClass, "prepareCall", null, checkSqlSrc);
+        } else if (SQL_TYPE_DB2.equals(type)) {
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement", null, checkSqlSrc);
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall", null, checkSqlSrc);
+        } else if (SQL_TYPE_HSQL.equals(type)) {
+            insertBeforeAndAddCatch(ctClass, type, "prepareStatement", null, checkSqlSrc);
+            insertBeforeAndAddCatch(ctClass, type, "prepareCall", null, checkSqlSrc);
         }
     }
 
-    private void insertBeforeAndAddCatch(CtClass ctClass, String methodName, String desc, String insertSrc) throws NotFoundException, CannotCompileException {
+    private void insertBeforeAndAddCatch(CtClass ctClass, String type, String methodName, String desc, String insertSrc) throws NotFoundException, CannotCompileException {
         insertBefore(ctClass, methodName, desc, insertSrc);
-        addCatch(ctClass, methodName, new String[]{desc});
+        addCatch(ctClass, type, methodName, new String[]{desc});
     }
 }
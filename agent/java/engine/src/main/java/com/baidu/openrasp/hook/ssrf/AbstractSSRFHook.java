@@ -19,12 +19,9 @@ package com.baidu.openrasp.hook.ssrf;
 import com.baidu.openrasp.HookHandler;
 import com.baidu.openrasp.hook.AbstractClassHook;
 import com.baidu.openrasp.plugin.checker.CheckParameter;
+import com.baidu.openrasp.plugin.js.JS;
 
-import java.net.Inet4Address;
-import java.net.InetAddress;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 
 /**
  * Created by tyy on 17-12-9.
@@ -51,25 +48,18 @@ public abstract class AbstractSSRFHook extends AbstractClassHook {
      * @param function http 请求的方式
      */
     protected static void checkHttpUrl(String url, String hostName, String port, String function) {
+        // 检测不会执行时无需解析域名，例如请求命中 hook 白名单或者插件没有注册 ssrf 检测
+        if (!HookHandler.isCheckEnabled(CheckParameter.Type.SSRF) || !JS.hasRegisteredCheck(CheckParameter.Type.SSRF)) {
+            return;
+        }
         HashMap<String, Object> params = new HashMap<String, Object>();
         params.put("url", url);
         params.put("hostname", hostName);
         params.put("function", function);
         params.put("port", port);
-        LinkedList<String> ip = new LinkedList<String>();
-        try {
-            InetAddress[] addresses = InetAddress.getAllByName(hostName);
-            for (InetAddress address : addresses) {
-                if (address != null && address instanceof Inet4Address) {
-                    ip.add(address.getHostAddress());
-                }
-            }
-        } catch (Throwable t) {
-            // ignore
-        }
-        Collections.sort(ip);
-        params.put("ip", ip);
-        HookHandler.doCheck(CheckParameter.Type.SSRF, params);
+        params.put("ip", SSRFHostResolver.resolve(hostName));
+        // isCheckEnabled 已经判断过白名单，无需再次匹配请求 url
+        HookHandler.doRealCheckWithoutRequest(CheckParameter.Type.SSRF, params);
     }
 
 }
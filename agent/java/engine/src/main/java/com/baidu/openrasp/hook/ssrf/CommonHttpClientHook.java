@@ -36,11 +36,11 @@ public class CommonHttpClientHook extends AbstractSSRFHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/commons/httpclient/URI".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/commons/httpclient/URI"};
     }
 
     /**
@@ -36,11 +36,11 @@ public class HttpClientHook extends AbstractSSRFHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/apache/http/client/methods/HttpRequestBase".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/apache/http/client/methods/HttpRequestBase"};
     }
 
     /**
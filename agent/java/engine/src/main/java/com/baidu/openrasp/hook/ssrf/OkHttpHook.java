@@ -34,9 +34,11 @@ import java.io.IOException;
 @HookAnnotation
 public class OkHttpHook extends AbstractSSRFHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "okhttp3/HttpUrl".equals(className) ||
-                "com/squareup/okhttp/HttpUrl".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "okhttp3/HttpUrl",
+                "com/squareup/okhttp/HttpUrl"
+        };
     }
 
     @Override
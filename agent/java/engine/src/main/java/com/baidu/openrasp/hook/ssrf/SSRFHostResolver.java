@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.hook.ssrf;
+
+import com.baidu.openrasp.config.Config;
+import com.baidu.openrasp.tool.ConcurrentLRUCache;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SSRF 检测使用的域名解析，结果按 JVM 的 networkaddress.cache.ttl 缓存
+ *
+ * 解析在后台线程中执行，同一个域名同时只会发起一次解析，其他请求线程等待同一个解析结果
+ * ssrf.dns.timeout_millis 为 0（默认）时一直等待解析完成；大于 0 时最多等待该时间，超时后不带 ip 继续检测，
+ * 后台解析完成后结果仍然会进入缓存
+ * 同时进行的解析数量有上限，超过上限时在请求线程中直接解析，不会跳过解析
+ */
+class SSRFHostResolver {
+
+    private static final int MAX_CONCURRENT_LOOKUPS = 8;
+    private static final int CACHE_SIZE = 1024;
+    // 未设置 networkaddress.cache.ttl 时 JVM 默认缓存 30 秒，解析失败默认缓存 10 秒
+    private static final int DEFAULT_TTL_SECONDS = 30;
+    private static final int DEFAULT_NEGATIVE_TTL_SECONDS = 10;
+
+    private static final ConcurrentLRUCache<String, CacheEntry> cache = new ConcurrentLRUCache<String, CacheEntry>(CACHE_SIZE);
+    static final ConcurrentHashMap<String, Future<List<String>>> pendingLookups =
+            new ConcurrentHashMap<String, Future<List<String>>>();
+    private static final ThreadPoolExecutor executor;
+    private static final long ttlMillis = getTtlMillis("networkaddress.cache.ttl", DEFAULT_TTL_SECONDS);
+    private static final long negativeTtlMillis =
+            getTtlMillis("networkaddress.cache.negative.ttl", DEFAULT_NEGATIVE_TTL_SECONDS);
+
+    static {
+        executor = new ThreadPoolExecutor(MAX_CONCURRENT_LOOKUPS, MAX_CONCURRENT_LOOKUPS, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "openrasp-ssrf-dns");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 解析域名的 IPv4 地址
+     *
+     * @param hostName 域名
+     * @return 排序之后的 ip 列表，解析失败或者设置的等待时间超时返回空列表
+     */
+    static List<String> resolve(String hostName) {
+        return resolve(hostName, Config.getConfig().getSsrfDnsTimeoutMillis(), executor);
+    }
+
+    /**
+     * 解析域名的 IPv4 地址
+     *
+     * @param hostName 域名
+     * @param timeout  等待解析的最长时间，单位/毫秒，0 代表一直等待
+     * @param executor 执行后台解析的线程池
+     * @return 排序之后的 ip 列表，解析失败或者等待超时返回空列表
+     */
+    static List<String> resolve(String hostName, int timeout, Executor executor) {
+        if (hostName == null || hostName.length() == 0) {
+            return new ArrayList<String>();
+        }
+        // 规范的 ip 字面量不需要解析，带前导 0 的地址交给 InetAddress 解析，以其规范化之后的结果参与检测
+        if (isIpv4Literal(hostName)) {
+            List<String> ip = new ArrayList<String>(1);
+            ip.add(hostName);
+            return ip;
+        }
+        if (hostName.indexOf(':') >= 0) {
+            return new ArrayList<String>();
+        }
+        String key = hostName.toLowerCase();
+        CacheEntry entry = cache.get(key);
+        if (entry != null && System.currentTimeMillis() < entry.expireAt) {
+            return new ArrayList<String>(entry.ip);
+        }
+        Future<List<String>> future = getLookup(key, executor);
+        if (future == null) {
+            // 同时进行的解析已达上限，在当前线程中解析
+            List<String> ip = lookup(key);
+            put(key, ip, ip.isEmpty() ? negativeTtlMillis : ttlMillis);
+            return new ArrayList<String>(ip);
+        }
+        try {
+            if (timeout > 0) {
+                return new ArrayList<String>(future.get(timeout, TimeUnit.MILLISECONDS));
+            }
+            return new ArrayList<String>(future.get());
+        } catch (TimeoutException e) {
+            return new ArrayList<String>();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<String>(lookup(key));
+        } catch (Throwable t) {
+            return new ArrayList<String>(lookup(key));
+        }
+    }
+
+    private static Future<List<String>> getLookup(final String hostName, Executor executor) {
+        Future<List<String>> future = pendingLookups.get(hostName);
+        if (future != null) {
+            return future;
+        }
+        FutureTask<List<String>> task = new FutureTask<List<String>>(new Callable<List<String>>() {
+            @Override
+            public List<String> call() {
+                try {
+                    List<String> ip = lookup(hostName);
+                    put(hostName, ip, ip.isEmpty() ? negativeTtlMillis : ttlMillis);
+                    return ip;
+                } finally {
+                    pendingLookups.remove(hostName);
+                }
+            }
+        });
+        future = pendingLookups.putIfAbsent(hostName, task);
+        if (future != null) {
+            return future;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            pendingLookups.remove(hostName, task);
+            return null;
+        }
+        return task;
+    }
+
+    private static List<String> lookup(String hostName) {
+        ArrayList<String> ip = new ArrayList<String>();
+        try {
+            InetAddress[] addresses = InetAddress.getAllByName(hostName);
+            for (InetAddress address : addresses) {
+                if (address != null && address instanceof Inet4Address) {
+                    ip.add(address.getHostAddress());
+                }
+            }
+        } catch (Throwable t) {
+            // ignore
+        }
+        Collections.sort(ip);
+        return Collections.unmodifiableList(ip);
+    }
+
+    private static void put(String hostName, List<String> ip, long ttl) {
+        if (ttl == 0) {
+            return;
+        }
+        long expireAt = ttl < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttl;
+        cache.put(hostName, new CacheEntry(ip, expireAt));
+    }
+
+    private static boolean isIpv4Literal(String hostName) {
+        int parts = 0;
+        int digits = 0;
+        int value = 0;
+        for (int i = 0; i < hostName.length(); i++) {
+            char c = hostName.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // 010.0.0.1 之类的地址在不同的解析实现中可能按八进制解释，不能原样作为 ip 使用
+                if (digits == 1 && value == 0) {
+                    return false;
+                }
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return false;
+                }
+            } else if (c == '.' && digits > 0) {
+                parts++;
+                digits = 0;
+                value = 0;
+            } else {
+                return false;
+            }
+        }
+        return parts == 3 && digits > 0;
+    }
+
+    /**
+     * 读取 JVM 域名缓存时间
+     *
+     * @return 毫秒，-1 代表永久缓存，0 代表不缓存
+     */
+    private static long getTtlMillis(String property, int defaultSeconds) {
+        int seconds = defaultSeconds;
+        try {
+            String value = Security.getProperty(property);
+            if (value != null) {
+                seconds = Integer.parseInt(value.trim());
+            }
+        } catch (Throwable t) {
+            // ignore
+        }
+        return seconds < 0 ? -1 : seconds * 1000L;
+    }
+
+    private static class CacheEntry {
+        private final List<String> ip;
+        private final long expireAt;
+
+        CacheEntry(List<String> ip, long expireAt) {
+            this.ip = ip;
+            this.expireAt = expireAt;
+        }
+    }
+
+}
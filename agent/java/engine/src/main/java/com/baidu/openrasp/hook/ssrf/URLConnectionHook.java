@@ -37,12 +37,14 @@ public class URLConnectionHook extends AbstractSSRFHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "sun/net/www/protocol/http/HttpURLConnection".equals(className) ||
-                "weblogic/net/http/HttpURLConnection".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "sun/net/www/protocol/http/HttpURLConnection",
+                "weblogic/net/http/HttpURLConnection"
+        };
     }
 
     /**
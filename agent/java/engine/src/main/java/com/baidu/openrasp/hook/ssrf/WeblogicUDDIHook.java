@@ -34,8 +34,8 @@ import java.net.URL;
 public class WeblogicUDDIHook extends AbstractSSRFHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "weblogic/uddi/client/service/UDDIService".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"weblogic/uddi/client/service/UDDIService"};
     }
 
     @Override
@@ -15,8 +15,8 @@ import java.io.IOException;
 public class ClassLoaderHook extends LoadLibraryHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/lang/ClassLoader".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/lang/ClassLoader"};
     }
 
     @Override
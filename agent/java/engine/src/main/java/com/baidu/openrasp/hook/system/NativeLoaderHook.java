@@ -14,8 +14,8 @@ import java.io.IOException;
 public class NativeLoaderHook extends LoadLibraryHook {
 
     @Override
-    public boolean isClassMatched(String className) {
-        return "java/lang/ClassLoader$NativeLibrary".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"java/lang/ClassLoader$NativeLibrary"};
     }
 
     @Override
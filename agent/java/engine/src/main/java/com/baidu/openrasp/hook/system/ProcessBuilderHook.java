@@ -52,19 +52,19 @@ public class ProcessBuilderHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
+    public String[] getMatchedClassNames() {
         if (ModuleLoader.isModularityJdk()) {
-            return "java/lang/ProcessImpl".equals(className);
+            return new String[]{"java/lang/ProcessImpl"};
         } else {
             if (OSUtil.isLinux() || OSUtil.isMacOS()) {
-                return "java/lang/UNIXProcess".equals(className);
+                return new String[]{"java/lang/UNIXProcess"};
             } else if (OSUtil.isWindows()) {
-                return "java/lang/ProcessImpl".equals(className);
+                return new String[]{"java/lang/ProcessImpl"};
             }
-            return false;
+            return new String[0];
         }
     }
 
@@ -93,7 +93,7 @@ public class ProcessBuilderHook extends AbstractClassHook {
     }
 
     public static void checkCommand(byte[] command, byte[] args, final byte[] envBlock) {
-        if (HookHandler.enableCmdHook.get()) {
+        if (HookHandler.isEnableCmdHook()) {
             LinkedList<String> commands = new LinkedList<String>();
             if (command != null && command.length > 0) {
                 commands.add(new String(command, 0, command.length - 1));
@@ -125,7 +125,7 @@ public class ProcessBuilderHook extends AbstractClassHook {
     }
 
     public static void checkCommand(String[] command, String envBlock) {
-        if (HookHandler.enableCmdHook.get()) {
+        if (HookHandler.isEnableCmdHook()) {
             LinkedList<String> commands = new LinkedList<String>();
             Collections.addAll(commands, command);
             LinkedList<String> envList = new LinkedList<String>();
@@ -157,7 +157,7 @@ public class ProcessBuilderHook extends AbstractClassHook {
                 params = new HashMap<String, Object>();
                 params.put("command", StringUtils.join(command, " "));
                 params.put("env", env);
-                List<String> stackInfo = StackTrace.getParamStackTraceArray();
+                List<String> stackInfo = StackTrace.getLazyParamStackTraceArray(ProcessBuilderHook.class);
                 params.put("stack", stackInfo);
             } catch (Throwable t) {
                 LogTool.traceHookWarn(t.getMessage(), t);
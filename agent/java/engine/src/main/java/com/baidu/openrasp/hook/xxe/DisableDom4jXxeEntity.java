@@ -34,8 +34,8 @@ import java.io.IOException;
 @HookAnnotation
 public class DisableDom4jXxeEntity extends DisableXxeEntity {
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/dom4j/io/SAXReader".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"org/dom4j/io/SAXReader"};
     }
 
     @Override
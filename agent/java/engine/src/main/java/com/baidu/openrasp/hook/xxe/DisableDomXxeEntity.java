@@ -34,9 +34,11 @@ import java.io.IOException;
 @HookAnnotation
 public class DisableDomXxeEntity extends DisableXxeEntity {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/sun/org/apache/xerces/internal/parsers/DOMParser".equals(className) ||
-                "org/apache/xerces/parsers/DOMParser".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/sun/org/apache/xerces/internal/parsers/DOMParser",
+                "org/apache/xerces/parsers/DOMParser"
+        };
     }
 
     @Override
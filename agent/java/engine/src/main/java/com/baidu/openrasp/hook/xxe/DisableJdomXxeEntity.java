@@ -34,9 +34,11 @@ import java.io.IOException;
 @HookAnnotation
 public class DisableJdomXxeEntity extends DisableXxeEntity {
     @Override
-    public boolean isClassMatched(String className) {
-        return "org/jdom/input/SAXBuilder".equals(className)
-                || "org/jdom2/input/SAXBuilder".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "org/jdom/input/SAXBuilder",
+                "org/jdom2/input/SAXBuilder"
+        };
     }
 
     @Override
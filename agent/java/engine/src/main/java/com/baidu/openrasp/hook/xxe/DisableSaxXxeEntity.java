@@ -36,9 +36,11 @@ import java.io.IOException;
 @HookAnnotation
 public class DisableSaxXxeEntity extends DisableXxeEntity {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/sun/org/apache/xerces/internal/jaxp/SAXParserImpl$JAXPSAXParser".equals(className) ||
-                "org/apache/xerces/jaxp/SAXParserImpl$JAXPSAXParser".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/sun/org/apache/xerces/internal/jaxp/SAXParserImpl$JAXPSAXParser",
+                "org/apache/xerces/jaxp/SAXParserImpl$JAXPSAXParser"
+        };
     }
 
     @Override
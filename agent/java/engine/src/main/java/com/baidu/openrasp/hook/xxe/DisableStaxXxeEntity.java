@@ -34,9 +34,11 @@ import java.io.IOException;
 @HookAnnotation
 public class DisableStaxXxeEntity extends DisableXxeEntity {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/sun/xml/internal/stream/XMLInputFactoryImpl".equals(className) ||
-                "com/ctc/wstx/stax/WstxInputFactory".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/sun/xml/internal/stream/XMLInputFactoryImpl",
+                "com/ctc/wstx/stax/WstxInputFactory"
+        };
     }
 
     @Override
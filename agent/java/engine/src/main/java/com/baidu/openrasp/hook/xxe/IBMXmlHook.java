@@ -32,8 +32,8 @@ import java.io.IOException;
 @HookAnnotation
 public class IBMXmlHook extends AbstractClassHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ibm/xml/xlxp2/api/util/SimpleParsedEntityFactory".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ibm/xml/xlxp2/api/util/SimpleParsedEntityFactory"};
     }
 
     @Override
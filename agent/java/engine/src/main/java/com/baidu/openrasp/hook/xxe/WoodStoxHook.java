@@ -34,8 +34,8 @@ import java.io.IOException;
 @HookAnnotation
 public class WoodStoxHook extends AbstractClassHook {
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/ctc/wstx/sr/StreamScanner".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{"com/ctc/wstx/sr/StreamScanner"};
     }
 
     @Override
@@ -36,25 +36,18 @@ import java.util.HashSet;
 @HookAnnotation
 public class XXEHook extends AbstractClassHook {
 
-    private static ThreadLocal<HashSet<String>> localExpandedSystemIds = new ThreadLocal<HashSet<String>>() {
-        @Override
-        protected HashSet<String> initialValue() {
-            return new HashSet<String>();
-        }
-    };
-
     /**
      * @return 当前线程已触发检测的expandedSystemIds
      */
     public static HashSet<String> getLocalExpandedSystemIds() {
-        return localExpandedSystemIds.get();
+        return HookHandler.getThreadContext().getExpandedSystemIds();
     }
 
     /**
      * 重置当前线程已触发检测的expandedSystemIds
      */
     public static void resetLocalExpandedSystemIds() {
-        localExpandedSystemIds.get().clear();
+        HookHandler.getThreadContext().resetExpandedSystemIds();
     }
 
     /**
@@ -70,13 +63,15 @@ public class XXEHook extends AbstractClassHook {
     /**
      * (none-javadoc)
      *
-     * @see com.baidu.openrasp.hook.AbstractClassHook#isClassMatched(String)
+     * @see com.baidu.openrasp.hook.AbstractClassHook#getMatchedClassNames()
      */
     @Override
-    public boolean isClassMatched(String className) {
-        return "com/sun/org/apache/xerces/internal/impl/XMLEntityManager".equals(className) ||
-                "org/apache/xerces/impl/XMLEntityManager".equals(className) ||
-                "org/apache/xerces/util/XMLEntityDescriptionImpl".equals(className);
+    public String[] getMatchedClassNames() {
+        return new String[]{
+                "com/sun/org/apache/xerces/internal/impl/XMLEntityManager",
+                "org/apache/xerces/impl/XMLEntityManager",
+                "org/apache/xerces/util/XMLEntityDescriptionImpl"
+        };
     }
 
     /**
@@ -99,8 +94,7 @@ public class XXEHook extends AbstractClassHook {
      * @param expandedSystemId
      */
     public static void checkXXE(String expandedSystemId) {
-        if (expandedSystemId != null && !XXEHook.getLocalExpandedSystemIds().contains(expandedSystemId)) {
-            XXEHook.getLocalExpandedSystemIds().add(expandedSystemId);
+        if (expandedSystemId != null && XXEHook.getLocalExpandedSystemIds().add(expandedSystemId)) {
             HashMap<String, Object> params = new HashMap<String, Object>();
             params.put("entity", expandedSystemId);
             HookHandler.doCheck(CheckParameter.Type.XXE, params);
@@ -110,7 +110,7 @@ public class CheckParameter {
     public CheckParameter(Type type, Map params) {
         this.type = type;
         this.params = params;
-        this.request = HookHandler.requestCache.get();
+        this.request = HookHandler.getRequestCache();
         this.createTime = System.currentTimeMillis();
     }
 
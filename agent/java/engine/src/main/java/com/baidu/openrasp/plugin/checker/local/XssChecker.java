@@ -47,8 +47,8 @@ public class XssChecker extends ConfigurableChecker {
         LinkedList<EventInfo> result = new LinkedList<EventInfo>();
         String content = String.valueOf(checkParameter.getParam("html_body"));
         if (!EventInfo.CHECK_ACTION_IGNORE.equals(action)) {
-            if (HookHandler.requestCache.get() != null && content != null) {
-                Map<String, String[]> parameterMap = HookHandler.requestCache.get().getParameterMap();
+            if (HookHandler.getRequestCache() != null && content != null) {
+                Map<String, String[]> parameterMap = HookHandler.getRequestCache().getParameterMap();
                 if (parameterMap != null) {
                     String regex = getStringElement(config, CONFIG_KEY_XSS_USER_INPUT, XSS_REGEX);
                     if (regex == null) {
@@ -73,7 +73,7 @@ public class XssChecker extends ConfigurableChecker {
                                 count++;
                                 if (content.contains(value)) {
                                     if ("websphere".equals(ApplicationModel.getServerName())) {
-                                        Reflection.invokeMethod(HookHandler.responseCache.get(), "resetBuffer", new Class[]{});
+                                        Reflection.invokeMethod(HookHandler.getResponseCache(), "resetBuffer", new Class[]{});
                                     }
                                     String message = "Reflected XSS attack detected, parameter name: " + entry.getKey();
                                     Map<String, Object> params = (Map<String, Object>) checkParameter.getParams();
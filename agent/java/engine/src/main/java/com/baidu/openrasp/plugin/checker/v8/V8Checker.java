@@ -47,6 +47,10 @@ public class V8Checker extends AttackChecker {
      */
     @Override
     public List<EventInfo> checkParam(CheckParameter checkParameter) {
+        // 插件没有注册该类型的检测函数时，无需序列化参数和调用 V8
+        if (!JS.hasRegisteredCheck(checkParameter.getType())) {
+            return null;
+        }
         return JS.Check(checkParameter);
     }
 }
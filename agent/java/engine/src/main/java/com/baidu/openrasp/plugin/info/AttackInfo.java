@@ -99,7 +99,8 @@ public class AttackInfo extends EventInfo {
         info.put("attack_type", parameter.getType().toString());
         // 攻击参数
         Map params = parameter.getParams();
-        params.put("stack", StackTrace.getStackTraceArray(true, true));
+        StackTraceElement[] trace = StackTrace.filter(new Throwable().getStackTrace());
+        params.put("stack", StackTrace.toStringList(trace, true));
         info.put("attack_params", params);
         // 检测插件
         info.put("plugin_name", this.pluginName);
@@ -161,7 +162,6 @@ public class AttackInfo extends EventInfo {
             // Java反编译开关打开时，启用
             if (Config.getConfig().getDecompileEnable() && checkTomcatVersion()) {
                 // 攻击调用栈
-                StackTraceElement[] trace = StackTrace.filter(new Throwable().getStackTrace());
                 info.put("source_code", Decompiler.getAlarmPoint(trace));
             } else {
                 info.put("source_code", "");
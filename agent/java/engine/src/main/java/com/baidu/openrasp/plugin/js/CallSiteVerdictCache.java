@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.plugin.js;
+
+import com.baidu.openrasp.config.Config;
+import com.baidu.openrasp.plugin.checker.CheckParameter.Type;
+import com.baidu.openrasp.tool.ConcurrentLRUCache;
+import com.baidu.openrasp.tool.Fingerprint;
+import com.baidu.openrasp.tool.StackTrace;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+/**
+ * 按调用位置缓存 sql 检测的安全结果，由 lru.callsite_enable 开启
+ *
+ * key 由调用栈顶部 lru.callsite_depth 层栈帧、数据库类型和去掉字面量之后的 sql 模板计算，
+ * 同一个调用位置执行结构相同、只有字面量不同的 sql 时，之前插件没有返回结果就直接跳过插件检测
+ * 不改变 sql 结构的注入无法被检测到，因此默认关闭；插件或者配置更新时清空
+ * 无法确定字面量边界的 sql（包含反斜杠、$ 引用、Oracle q 引用等）不使用该缓存
+ */
+public class CallSiteVerdictCache {
+
+    private static final int CACHE_SIZE = 4096;
+
+    private static final ConcurrentLRUCache<Fingerprint, Boolean> cache =
+            new ConcurrentLRUCache<Fingerprint, Boolean>(CACHE_SIZE);
+
+    /**
+     * 计算检测参数对应的缓存 key
+     *
+     * @param type   检测类型
+     * @param params 检测参数
+     * @return 缓存 key，不支持缓存时返回 null
+     */
+    static Fingerprint getKey(Type type, Map params) {
+        if (type != Type.SQL || params == null || params.size() > 2) {
+            return null;
+        }
+        Object server = params.get("server");
+        Object query = params.get("query");
+        if (!(server instanceof String) || !(query instanceof String)) {
+            return null;
+        }
+        String template = normalizeSql((String) query);
+        if (template == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(template.length() + 256);
+        key.append(server).append('\n').append(template);
+        StackTraceElement[] trace = StackTrace.getCallerStackTrace(Config.getConfig().getLruCallSiteDepth());
+        for (StackTraceElement element : trace) {
+            key.append('\n').append(element.getClassName()).append('.').append(element.getMethodName())
+                    .append(':').append(element.getLineNumber());
+        }
+        try {
+            byte[] data = key.toString().getBytes("UTF-8");
+            return Fingerprint.of(type.getName().hashCode(), data, data.length);
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    static boolean isSafe(Fingerprint key) {
+        return cache.isContainsKey(key);
+    }
+
+    static void putSafe(Fingerprint key) {
+        cache.put(key, Boolean.TRUE);
+    }
+
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 将 sql 中的字符串和数字字面量替换为 ?，其余部分原样保留
+     *
+     * 注释、反引号和双引号中的内容原样保留，只要与数据库对字面量边界的理解可能不一致就放弃缓存
+     *
+     * @param query sql 语句
+     * @return sql 模板，无法确定字面量边界时返回 null
+     */
+    static String normalizeSql(String query) {
+        int len = query.length();
+        StringBuilder template = new StringBuilder(len);
+        int i = 0;
+        while (i < len) {
+            char c = query.charAt(i);
+            int end;
+            if (c == '\'') {
+                // Oracle 的 q'[...]' 引用中单引号不需要转义
+                if (i > 0 && (query.charAt(i - 1) == 'q' || query.charAt(i - 1) == 'Q')) {
+                    return null;
+                }
+                end = skipString(query, i);
+                if (end < 0) {
+                    return null;
+                }
+                template.append('?');
+                i = end;
+                continue;
+            } else if (c == '"' || c == '`') {
+                end = skipQuoted(query, i, c);
+            } else if ((c == '-' && i + 1 < len && query.charAt(i + 1) == '-') || c == '#') {
+                end = query.indexOf('\n', i);
+                end = end < 0 ? len : end;
+                // 不同数据库对 -- 和 # 是否为注释的判断不同，注释中有引号时无法确定字面量边界
+                if (containsQuote(query, i, end)) {
+                    return null;
+                }
+            } else if (c == '/' && i + 1 < len && query.charAt(i + 1) == '*') {
+                end = query.indexOf("*/", i + 2);
+                // PostgreSQL 的注释可以嵌套，MySQL 的 /*! */ 注释中的内容会被执行
+                if (end < 0 || query.substring(i + 2, end).indexOf("/*") >= 0 || containsQuote(query, i, end)) {
+                    return null;
+                }
+                end += 2;
+            } else if (c == '$' || c == '\\') {
+                return null;
+            } else if (c >= '0' && c <= '9' && (i == 0 || !isIdentifierChar(query.charAt(i - 1)))) {
+                end = skipNumber(query, i);
+                if (end < len && isIdentifierChar(query.charAt(end))) {
+                    // 以数字开头的标识符或者十六进制数字，原样保留
+                    while (end < len && isIdentifierChar(query.charAt(end))) {
+                        end++;
+                    }
+                } else {
+                    template.append('?');
+                    i = end;
+                    continue;
+                }
+            } else {
+                template.append(c);
+                i++;
+                continue;
+            }
+            if (end < 0) {
+                return null;
+            }
+            template.append(query, i, end);
+            i = end;
+        }
+        return template.toString();
+    }
+
+    /**
+     * @return 单引号字符串之后的位置，字符串没有结束或者包含反斜杠时返回 -1
+     */
+    private static int skipString(String query, int start) {
+        int i = start + 1;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                // 反斜杠是否转义取决于数据库和配置
+                return -1;
+            }
+            if (c == '\'') {
+                if (i + 1 < query.length() && query.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int skipQuoted(String query, int start, char quote) {
+        for (int i = start + 1; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                return -1;
+            }
+            if (c == quote) {
+                if (i + 1 < query.length() && query.charAt(i + 1) == quote) {
+                    i++;
+                    continue;
+                }
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsQuote(String query, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = query.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipNumber(String query, int start) {
+        int i = start;
+        while (i < query.length() && (query.charAt(i) >= '0' && query.charAt(i) <= '9' || query.charAt(i) == '.')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+}
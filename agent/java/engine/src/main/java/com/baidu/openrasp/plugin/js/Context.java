@@ -33,13 +33,83 @@ import java.util.Map;
 
 public class Context extends com.baidu.openrasp.v8.Context {
 
+    // 缓存中代表序列化结果为 null
+    private static final byte[] NULL_SNAPSHOT = new byte[0];
+
     public AbstractRequest request = null;
 
+    // 注册给 v8 的 key 的编号，即 key 在注册数组中的下标
+    private static final int STRING_PATH = 0;
+    private static final int STRING_METHOD = 1;
+    private static final int STRING_URL = 2;
+    private static final int STRING_QUERYSTRING = 3;
+    private static final int STRING_PROTOCOL = 4;
+    private static final int STRING_REMOTE_ADDR = 5;
+    private static final int STRING_APP_BASE_PATH = 6;
+    private static final int STRING_REQUEST_ID = 7;
+    private static final int STRING_APP_ID = 8;
+    private static final int STRING_RASP_ID = 9;
+    private static final int STRING_HOSTNAME = 10;
+    private static final int STRING_SOURCE = 11;
+    private static final int STRING_TARGET = 12;
+    private static final int STRING_CLIENT_IP = 13;
+
+    private static final int OBJECT_JSON = 0;
+    private static final int OBJECT_SERVER = 1;
+    private static final int OBJECT_PARAMETER = 2;
+    private static final int OBJECT_HEADER = 3;
+    private static final int OBJECT_NIC = 4;
+
+    private static final int BUFFER_BODY = 0;
+
+    private static final String[] STRING_KEYS = new String[14];
+    private static final String[] OBJECT_KEYS = new String[5];
+    private static final String[] BUFFER_KEYS = new String[1];
+
+    static {
+        STRING_KEYS[STRING_PATH] = "path";
+        STRING_KEYS[STRING_METHOD] = "method";
+        STRING_KEYS[STRING_URL] = "url";
+        STRING_KEYS[STRING_QUERYSTRING] = "querystring";
+        STRING_KEYS[STRING_PROTOCOL] = "protocol";
+        STRING_KEYS[STRING_REMOTE_ADDR] = "remoteAddr";
+        STRING_KEYS[STRING_APP_BASE_PATH] = "appBasePath";
+        STRING_KEYS[STRING_REQUEST_ID] = "requestId";
+        STRING_KEYS[STRING_APP_ID] = "appId";
+        STRING_KEYS[STRING_RASP_ID] = "raspId";
+        STRING_KEYS[STRING_HOSTNAME] = "hostname";
+        STRING_KEYS[STRING_SOURCE] = "source";
+        STRING_KEYS[STRING_TARGET] = "target";
+        STRING_KEYS[STRING_CLIENT_IP] = "clientIp";
+        OBJECT_KEYS[OBJECT_JSON] = "json";
+        OBJECT_KEYS[OBJECT_SERVER] = "server";
+        OBJECT_KEYS[OBJECT_PARAMETER] = "parameter";
+        OBJECT_KEYS[OBJECT_HEADER] = "header";
+        OBJECT_KEYS[OBJECT_NIC] = "nic";
+        BUFFER_KEYS[BUFFER_BODY] = "body";
+    }
+
+    private static final HashMap<String, Integer> STRING_KEY_IDS = getKeyIds(STRING_KEYS);
+    private static final HashMap<String, Integer> OBJECT_KEY_IDS = getKeyIds(OBJECT_KEYS);
+    private static final HashMap<String, Integer> BUFFER_KEY_IDS = getKeyIds(BUFFER_KEYS);
+
+    // 网卡信息由 OSUtil 定时刷新，快照不变时复用序列化结果
+    private static volatile CachedValue<byte[]> nicCache;
+    // 服务器信息只在检测到服务器类型时变化，按 ApplicationModel 的修改次数缓存
+    private static volatile ServerCache serverCache;
+
     public static void setKeys() {
-        setStringKeys(new String[]{"path", "method", "url", "querystring", "protocol", "remoteAddr", "appBasePath",
-                "requestId", "appId", "raspId", "hostname", "source", "target", "clientIp"});
-        setObjectKeys(new String[]{"json", "server", "parameter", "header", "nic"});
-        setBufferKeys(new String[]{"body"});
+        setStringKeys(STRING_KEYS);
+        setObjectKeys(OBJECT_KEYS);
+        setBufferKeys(BUFFER_KEYS);
+    }
+
+    private static HashMap<String, Integer> getKeyIds(String[] keys) {
+        HashMap<String, Integer> ids = new HashMap<String, Integer>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            ids.put(keys[i], i);
+        }
+        return ids;
     }
 
     public Context(AbstractRequest request) {
@@ -47,55 +117,76 @@ public class Context extends com.baidu.openrasp.v8.Context {
     }
 
     public String getString(String key) {
-        if (key.equals("path"))
-            return getPath();
-        if (key.equals("method"))
-            return getMethod();
-        if (key.equals("url"))
-            return getUrl();
-        if (key.equals("querystring"))
-            return getQuerystring();
-        if (key.equals("appBasePath"))
-            return getAppBasePath();
-        if (key.equals("protocol"))
-            return getProtocol();
-        if (key.equals("remoteAddr"))
-            return getRemoteAddr();
-        if (key.equals("requestId"))
-            return getRequestId();
-        if (key.equals("appId"))
-            return getAppId();
-        if (key.equals("raspId"))
-            return getRaspId();
-        if (key.equals("hostname"))
-            return getHostname();
-        if (key.equals("source"))
-            return getSource();
-        if (key.equals("target"))
-            return getTarget();
-        if (key.equals("clientIp"))
-            return getClientIp();
-        return null;
+        Integer id = STRING_KEY_IDS.get(key);
+        if (id == null) {
+            return null;
+        }
+        switch (id) {
+            case STRING_PATH:
+                return getPath();
+            case STRING_METHOD:
+                return getMethod();
+            case STRING_URL:
+                return getUrl();
+            case STRING_QUERYSTRING:
+                return getQuerystring();
+            case STRING_PROTOCOL:
+                return getProtocol();
+            case STRING_REMOTE_ADDR:
+                return getRemoteAddr();
+            case STRING_APP_BASE_PATH:
+                return getAppBasePath();
+            case STRING_REQUEST_ID:
+                return getRequestId();
+            case STRING_APP_ID:
+                return getAppId();
+            case STRING_RASP_ID:
+                return getRaspId();
+            case STRING_HOSTNAME:
+                return getHostname();
+            case STRING_SOURCE:
+                return getSource();
+            case STRING_TARGET:
+                return getTarget();
+            case STRING_CLIENT_IP:
+                return getClientIp();
+            default:
+                return null;
+        }
     }
 
     public byte[] getObject(String key) {
-        if (key.equals("json"))
-            return getJson();
-        if (key.equals("header"))
-            return getHeader();
-        if (key.equals("parameter"))
-            return getParameter();
-        if (key.equals("server"))
-            return getServer();
-        if (key.equals("nic"))
-            return getNic();
-        return null;
+        Integer id = OBJECT_KEY_IDS.get(key);
+        if (id == null) {
+            return null;
+        }
+        switch (id) {
+            case OBJECT_JSON:
+                return getJson();
+            case OBJECT_SERVER:
+                return getServer();
+            case OBJECT_PARAMETER:
+                return getParameter();
+            case OBJECT_HEADER:
+                return getHeader();
+            case OBJECT_NIC:
+                return getNic();
+            default:
+                return null;
+        }
     }
 
     public byte[] getBuffer(String key) {
-        if (key.equals("body"))
-            return getBody();
-        return null;
+        Integer id = BUFFER_KEY_IDS.get(key);
+        if (id == null) {
+            return null;
+        }
+        switch (id) {
+            case BUFFER_BODY:
+                return getBody();
+            default:
+                return null;
+        }
     }
 
     public String getPath() {
@@ -165,7 +256,14 @@ public class Context extends com.baidu.openrasp.v8.Context {
     // TODO: update openrasp-v8, accept string body
     public byte[] getBody() {
         try {
-            return escape(request.getStringBody());
+            byte[] snapshot = request.getSnapshot(AbstractRequest.SNAPSHOT_BODY);
+            if (snapshot != null) {
+                return fromSnapshot(snapshot);
+            }
+            String body = request.getStringBody();
+            byte[] result = body != null ? escape(body) : null;
+            request.setSnapshot(AbstractRequest.SNAPSHOT_BODY, toSnapshot(result));
+            return result;
         } catch (Exception e) {
             return null;
         }
@@ -200,20 +298,26 @@ public class Context extends com.baidu.openrasp.v8.Context {
 
     public byte[] getHeader() {
         try {
-            Enumeration<String> headerNames = request.getHeaderNames();
-            if (headerNames == null || !headerNames.hasMoreElements()) {
-                return null;
+            byte[] snapshot = request.getSnapshot(AbstractRequest.SNAPSHOT_HEADER);
+            if (snapshot != null) {
+                return fromSnapshot(snapshot);
             }
-            HashMap<String, String> headers = new HashMap<String, String>();
-            while (headerNames.hasMoreElements()) {
-                String key = headerNames.nextElement();
-                String value = request.getHeader(key);
-                headers.put(key.toLowerCase(), value);
+            byte[] result = null;
+            Enumeration<String> headerNames = request.getHeaderNames();
+            if (headerNames != null && headerNames.hasMoreElements()) {
+                HashMap<String, String> headers = new HashMap<String, String>();
+                while (headerNames.hasMoreElements()) {
+                    String key = headerNames.nextElement();
+                    String value = request.getHeader(key);
+                    headers.put(key.toLowerCase(), value);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                JsonStream.serialize(headers, out);
+                out.write(0);
+                result = out.getByteArray();
             }
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            JsonStream.serialize(headers, out);
-            out.write(0);
-            return out.getByteArray();
+            request.setSnapshot(AbstractRequest.SNAPSHOT_HEADER, toSnapshot(result));
+            return result;
         } catch (Exception e) {
             return "{}".getBytes();
         }
@@ -221,26 +325,47 @@ public class Context extends com.baidu.openrasp.v8.Context {
 
     public byte[] getParameter() {
         try {
+            byte[] snapshot = request.getSnapshot(AbstractRequest.SNAPSHOT_PARAMETER);
+            if (snapshot != null) {
+                return fromSnapshot(snapshot);
+            }
+            byte[] result = null;
             Map<String, String[]> parameters = request.getParameterMap();
-            if (parameters == null || parameters.isEmpty()) {
-                return null;
+            if (parameters != null && !parameters.isEmpty()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                JsonStream.serialize(parameters, out);
+                out.write(0);
+                result = out.getByteArray();
             }
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            JsonStream.serialize(parameters, out);
-            out.write(0);
-            return out.getByteArray();
+            request.setSnapshot(AbstractRequest.SNAPSHOT_PARAMETER, toSnapshot(result));
+            return result;
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static byte[] toSnapshot(byte[] result) {
+        return result != null ? result : NULL_SNAPSHOT;
+    }
+
+    private static byte[] fromSnapshot(byte[] snapshot) {
+        return snapshot == NULL_SNAPSHOT ? null : snapshot;
+    }
+
     public byte[] getServer() {
         try {
+            long modCount = ApplicationModel.getModCount();
+            ServerCache cache = serverCache;
+            if (cache != null && cache.modCount == modCount) {
+                return cache.value;
+            }
             Map<String, String> server = ApplicationModel.getApplicationInfo();
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             JsonStream.serialize(server, out);
             out.write(0);
-            return out.getByteArray();
+            byte[] result = out.getByteArray();
+            serverCache = new ServerCache(result, modCount);
+            return result;
         } catch (Exception e) {
             return "{}".getBytes();
         }
@@ -273,10 +398,16 @@ public class Context extends com.baidu.openrasp.v8.Context {
     public byte[] getNic() {
         try {
             List<NicModel> nic = OSUtil.getIpAddress();
+            CachedValue<byte[]> cache = nicCache;
+            if (cache != null && cache.source == nic) {
+                return cache.value;
+            }
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             JsonStream.serialize(nic, out);
             out.write(0);
-            return out.getByteArray();
+            byte[] result = out.getByteArray();
+            nicCache = new CachedValue<byte[]>(result, nic);
+            return result;
         } catch (Exception e) {
             return "{}".getBytes();
         }
@@ -305,4 +436,30 @@ public class Context extends com.baidu.openrasp.v8.Context {
             return "";
         }
     }
+
+    /**
+     * 缓存的序列化结果及其来源，来源变化时缓存失效
+     */
+    private static class CachedValue<T> {
+        private final T value;
+        private final Object source;
+
+        CachedValue(T value, Object source) {
+            this.value = value;
+            this.source = source;
+        }
+    }
+
+    /**
+     * 缓存的服务器信息序列化结果及其对应的 ApplicationModel 修改次数
+     */
+    private static class ServerCache {
+        private final byte[] value;
+        private final long modCount;
+
+        ServerCache(byte[] value, long modCount) {
+            this.value = value;
+            this.modCount = modCount;
+        }
+    }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import com.baidu.openrasp.plugin.checker.CheckParameter;
 import com.baidu.openrasp.plugin.checker.CheckParameter.Type;
 import com.baidu.openrasp.plugin.info.AttackInfo;
 import com.baidu.openrasp.plugin.info.EventInfo;
+import com.baidu.openrasp.tool.Fingerprint;
 import com.baidu.openrasp.tool.StackTrace;
 import com.baidu.openrasp.tool.filemonitor.FileScanListener;
 import com.baidu.openrasp.tool.filemonitor.FileScanMonitor;
@@ -32,6 +33,7 @@ import com.baidu.openrasp.tool.model.BuildRASPModel;
 import com.baidu.openrasp.v8.ByteArrayOutputStream;
 import com.baidu.openrasp.v8.V8;
 import com.jsoniter.JsonIterator;
+import com.jsoniter.ValueType;
 import com.jsoniter.any.Any;
 import com.jsoniter.extra.Base64Support;
 import com.jsoniter.output.JsonStream;
@@ -43,12 +45,31 @@ import java.io.File;
 import java.io.FileFilter;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class JS {
     public static final Logger PLUGIN_LOGGER = Logger.getLogger(JS.class.getPackage().getName() + ".log");
     public static final Logger LOGGER = Logger.getLogger(JS.class.getPackage().getName());
     public static Integer watchId = null;
+    // 插件中调用 plugin.register 注册过的检测类型，为 null 代表无法获取，此时所有类型都进入插件检测
+    private static volatile Set<String> registeredCheckTypes = null;
+    // 在插件之前执行，记录插件注册的检测类型
+    private static final String REGISTER_RECORDER_SCRIPT = "(function () {\n" +
+            "    var register = RASP.prototype.register;\n" +
+            "    if (typeof register !== 'function') {\n" +
+            "        return;\n" +
+            "    }\n" +
+            "    var registered = {};\n" +
+            "    RASP.prototype.register = function (checkPoint) {\n" +
+            "        registered[checkPoint] = true;\n" +
+            "        return register.apply(this, arguments);\n" +
+            "    };\n" +
+            "    RASP.getRegisteredCheckPoints = function () {\n" +
+            "        return Object.keys(registered);\n" +
+            "    };\n" +
+            "})();";
 
     static {
         Base64Support.enable();
@@ -102,6 +123,13 @@ public class JS {
 
     public static List<EventInfo> Check(CheckParameter checkParameter) {
         Type type = checkParameter.getType();
+        Fingerprint callSiteKey = null;
+        if (Config.getConfig().getLruCallSiteEnable()) {
+            callSiteKey = CallSiteVerdictCache.getKey(type, checkParameter.getParams());
+            if (callSiteKey != null && CallSiteVerdictCache.isSafe(callSiteKey)) {
+                return null;
+            }
+        }
         ByteArrayOutputStream params = new ByteArrayOutputStream();
         JsonStream.serialize(checkParameter.getParams(), params);
 
@@ -109,11 +137,12 @@ public class JS {
         if (type == Type.DIRECTORY || type == Type.READFILE || type == Type.WRITEFILE || type == Type.SQL || type == Type.SSRF) {
             byte[] paramData = params.getByteArray();
             if (!Config.getConfig().getLruCompareEnable()) {
-                hashData = ByteBuffer.wrap(paramData).hashCode();
+                // 使用 128 位指纹代替完整数据，以检测类型为种子区分不同类型的相同参数
+                hashData = Fingerprint.of(type.getName().hashCode(), paramData, params.size());
             } else if (paramData.length <= Config.getConfig().getLruCompareLimit()) {
                 hashData = ByteBuffer.wrap(paramData);
             }
-            if (Config.commonLRUCache.isContainsKey(hashData)) {
+            if (hashData != null && Config.commonLRUCache.isContainsKey(hashData)) {
                 return null;
             }
         }
@@ -131,6 +160,9 @@ public class JS {
             if (hashData != null && Config.commonLRUCache.maxSize() != 0) {
                 Config.commonLRUCache.put(hashData, null);
             }
+            if (callSiteKey != null) {
+                CallSiteVerdictCache.putSafe(callSiteKey);
+            }
             return null;
         }
 
@@ -188,7 +220,10 @@ public class JS {
     }
 
     public synchronized static boolean UpdatePlugin(List<String[]> scripts) {
-        boolean rst = V8.CreateSnapshot("{}", scripts.toArray(), BuildRASPModel.getRaspVersion());
+        List<String[]> allScripts = new ArrayList<String[]>(scripts.size() + 1);
+        allScripts.add(new String[]{"register-recorder.js", REGISTER_RECORDER_SCRIPT});
+        allScripts.addAll(scripts);
+        boolean rst = V8.CreateSnapshot("{}", allScripts.toArray(), BuildRASPModel.getRaspVersion());
         if (rst) {
             try {
                 String jsonString = V8.ExecuteScript("JSON.stringify(RASP.algorithmConfig || {})", "get-algorithm-config.js");
@@ -196,11 +231,43 @@ public class JS {
             } catch (Exception e) {
                 LogTool.error(ErrorType.PLUGIN_ERROR, e.getMessage(), e);
             }
+            updateRegisteredCheckTypes();
             Config.commonLRUCache.clear();
+            CallSiteVerdictCache.clear();
         }
         return rst;
     }
 
+    /**
+     * 判断插件中是否注册了该检测类型的检测函数
+     *
+     * @param type 检测类型
+     * @return 没有注册时返回 false，无法确定时返回 true
+     */
+    public static boolean hasRegisteredCheck(Type type) {
+        Set<String> types = registeredCheckTypes;
+        return types == null || types.contains(type.getName());
+    }
+
+    private static void updateRegisteredCheckTypes() {
+        Set<String> types = null;
+        try {
+            String jsonString = V8.ExecuteScript("JSON.stringify(typeof RASP.getRegisteredCheckPoints === 'function' " +
+                    "? RASP.getRegisteredCheckPoints() : null)", "get-registered-check-points.js");
+            Any any = JsonIterator.deserialize(jsonString);
+            if (any != null && any.valueType() == ValueType.ARRAY) {
+                types = new HashSet<String>();
+                for (Any checkPoint : any.asList()) {
+                    types.add(checkPoint.toString());
+                }
+                LOGGER.info("registered check points: " + types);
+            }
+        } catch (Exception e) {
+            LogTool.error(ErrorType.PLUGIN_ERROR, "failed to get registered check points: " + e.getMessage(), e);
+        }
+        registeredCheckTypes = types;
+    }
+
     public synchronized static void InitFileWatcher() throws Exception {
         boolean oldValue = HookHandler.enableHook.getAndSet(false);
         if (watchId != null) {
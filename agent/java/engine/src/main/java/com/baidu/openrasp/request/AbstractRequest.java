@@ -23,8 +23,6 @@ import com.baidu.openrasp.tool.Reflection;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.ByteArrayOutputStream;
-import java.io.CharArrayWriter;
-import java.io.UnsupportedEncodingException;
 import java.util.*;
 
 /**
@@ -33,18 +31,36 @@ import java.util.*;
  * 为不同服务器的不同请求hook点做出的统一格式抽象类
  */
 public abstract class AbstractRequest {
+    public static final String SNAPSHOT_HEADER = "header";
+    public static final String SNAPSHOT_PARAMETER = "parameter";
+    public static final String SNAPSHOT_BODY = "body";
     protected static final Class[] EMPTY_CLASS = new Class[]{};
     protected static final Class[] STRING_CLASS = new Class[]{String.class};
+    private static volatile RequestIdGenerator requestIdGenerator = new FastRequestIdGenerator();
     protected Object request;
     protected Object inputStream = null;
     protected Object charReader = null;
-    protected ByteArrayOutputStream bodyOutputStream = null;
-    protected CharArrayWriter bodyWriter = null;
+    private RequestBodyBuffer bodyBuffer = null;
+    // 解码之后的 body，有新数据写入时失效
+    private String stringBody = null;
     protected int maxBodySize = 4096;
     protected String requestId;
     protected boolean canGetParameter = false;
     protected HashMap<String, String[]> formItemCache = null;
     protected LinkedList<RequestFileItem> fileParamCache = null;
+    // 传给插件的 header、parameter、body 的序列化结果，同一个请求的多次检测复用，相关状态变化时失效
+    private HashMap<String, byte[]> snapshots = null;
+
+    /**
+     * 替换请求 id 生成器
+     *
+     * @param generator 请求 id 生成器
+     */
+    public static void setRequestIdGenerator(RequestIdGenerator generator) {
+        if (generator != null) {
+            requestIdGenerator = generator;
+        }
+    }
 
     /**
      * constructor
@@ -62,7 +78,7 @@ public abstract class AbstractRequest {
      */
     public AbstractRequest(Object request) {
         this.request = request;
-        this.requestId = UUID.randomUUID().toString().replace("-", "");
+        this.requestId = requestIdGenerator.generate();
         this.maxBodySize = Config.getConfig().getBodyMaxBytes();
     }
 
@@ -88,6 +104,7 @@ public abstract class AbstractRequest {
      */
     public void setCanGetParameter(boolean canGetParameter) {
         this.canGetParameter = canGetParameter;
+        removeSnapshot(SNAPSHOT_PARAMETER);
     }
 
     /**
@@ -278,44 +295,36 @@ public abstract class AbstractRequest {
      *
      * @return request body, can be null
      */
-    public byte[] getBody() {
-        return bodyOutputStream != null ? bodyOutputStream.toByteArray() : null;
+    public synchronized byte[] getBody() {
+        return bodyBuffer != null && bodyBuffer.hasBytes() ? bodyBuffer.toByteArray() : null;
     }
 
     /**
-     * 返回HTTP request body
+     * 返回HTTP request body，同一个请求只解码一次，有新数据写入之后重新解码
      *
      * @return request body, can be null
      */
-    public String getStringBody() {
-        if (bodyOutputStream != null) {
-            byte[] body = bodyOutputStream.toByteArray();
-            if (body != null) {
-                String encoding = getCharacterEncoding();
-                if (!StringUtils.isEmpty(encoding)) {
-                    try {
-                        return new String(body, encoding);
-                    } catch (UnsupportedEncodingException e) {
-                        return new String(body);
-                    }
-                } else {
-                    return new String(body);
-                }
-            }
-            return null;
-        } else if (bodyWriter != null) {
-            return bodyWriter.toString();
+    public synchronized String getStringBody() {
+        if (stringBody == null && bodyBuffer != null) {
+            String encoding = bodyBuffer.hasBytes() ? getCharacterEncoding() : null;
+            stringBody = bodyBuffer.decode(encoding);
         }
-        return null;
+        return stringBody;
     }
 
     /**
      * 返回HTTP request body stream
      *
-     * @return request body, can be null
+     * @return request body 的副本, can be null
      */
-    public ByteArrayOutputStream getBodyStream() {
-        return bodyOutputStream;
+    public synchronized ByteArrayOutputStream getBodyStream() {
+        if (bodyBuffer == null || !bodyBuffer.hasBytes()) {
+            return null;
+        }
+        byte[] body = bodyBuffer.toByteArray();
+        ByteArrayOutputStream bodyStream = new ByteArrayOutputStream(body.length);
+        bodyStream.write(body, 0, body.length);
+        return bodyStream;
     }
 
     /**
@@ -359,13 +368,9 @@ public abstract class AbstractRequest {
      *
      * @param b 要添加的字节
      */
-    public void appendByteBody(int b) {
-        if (bodyOutputStream == null) {
-            bodyOutputStream = new ByteArrayOutputStream();
-        }
-
-        if (bodyOutputStream.size() < maxBodySize) {
-            bodyOutputStream.write(b);
+    public synchronized void appendByteBody(int b) {
+        if (getBodyBuffer().appendByte(b)) {
+            invalidateBody();
         }
     }
 
@@ -376,14 +381,9 @@ public abstract class AbstractRequest {
      * @param offset 要添加的起始偏移量
      * @param len    要添加的长度
      */
-    public void appendBody(byte[] bytes, int offset, int len) {
-        if (bodyOutputStream == null) {
-            bodyOutputStream = new ByteArrayOutputStream();
-        }
-
-        len = Math.min(len, maxBodySize - bodyOutputStream.size());
-        if (len > 0) {
-            bodyOutputStream.write(bytes, offset, len);
+    public synchronized void appendBody(byte[] bytes, int offset, int len) {
+        if (getBodyBuffer().appendBytes(bytes, offset, len)) {
+            invalidateBody();
         }
     }
 
@@ -394,14 +394,9 @@ public abstract class AbstractRequest {
      * @param offset 要添加的起始偏移量
      * @param len    要添加的长度
      */
-    public void appendBody(char[] cbuf, int offset, int len) {
-        if (bodyWriter == null) {
-            bodyWriter = new CharArrayWriter();
-        }
-
-        len = Math.min(len, maxBodySize / 2 - bodyWriter.size());
-        if (len > 0) {
-            bodyWriter.write(cbuf, offset, len);
+    public synchronized void appendBody(char[] cbuf, int offset, int len) {
+        if (getBodyBuffer().appendChars(cbuf, offset, len)) {
+            invalidateBody();
         }
     }
 
@@ -410,13 +405,51 @@ public abstract class AbstractRequest {
      *
      * @param b 要添加的字符
      */
-    public void appendCharBody(int b) {
-        if (bodyWriter == null) {
-            bodyWriter = new CharArrayWriter();
+    public synchronized void appendCharBody(int b) {
+        if (getBodyBuffer().appendChar(b)) {
+            invalidateBody();
+        }
+    }
+
+    private void invalidateBody() {
+        stringBody = null;
+        removeSnapshot(SNAPSHOT_BODY);
+    }
+
+    private RequestBodyBuffer getBodyBuffer() {
+        if (bodyBuffer == null) {
+            bodyBuffer = RequestBodyBuffer.acquire(this, maxBodySize);
+        }
+        return bodyBuffer;
+    }
+
+    /**
+     * 请求结束时调用，归还当前线程的 body 缓冲区
+     * 请求结束之后仍会被读取的请求保留一份已有内容的副本，其余请求不再持有 body
+     */
+    public synchronized void releaseBodyBuffer() {
+        if (bodyBuffer != null) {
+            bodyBuffer = bodyBuffer.release(this, isAsyncStarted());
         }
+    }
 
-        if (bodyWriter.size() < (maxBodySize / 2)) {
-            bodyWriter.write(b);
+    /**
+     * 请求是否已经进入异步处理，异步请求在请求结束 hook 点之后仍可能被读取
+     *
+     * @return 默认不支持异步处理
+     */
+    protected boolean isAsyncStarted() {
+        return false;
+    }
+
+    /**
+     * 当前线程的 body 缓冲区被新请求复用之前调用，保留一份当前内容的副本
+     *
+     * @param buffer 即将被复用的缓冲区
+     */
+    synchronized void detachBodyBuffer(RequestBodyBuffer buffer) {
+        if (bodyBuffer == buffer) {
+            bodyBuffer = buffer.copy();
         }
     }
 
@@ -446,6 +479,7 @@ public abstract class AbstractRequest {
 
     public void setFormItemCache(HashMap<String, String[]> cache) {
         formItemCache = cache;
+        removeSnapshot(SNAPSHOT_PARAMETER);
     }
 
     public LinkedList<RequestFileItem> getFileParamCache() {
@@ -455,4 +489,33 @@ public abstract class AbstractRequest {
     public void setFileParamCache(LinkedList<RequestFileItem> fileParamCache) {
         this.fileParamCache = fileParamCache;
     }
+
+    /**
+     * 获取缓存的序列化结果
+     *
+     * @param key 缓存的 key，如 {@link #SNAPSHOT_HEADER}
+     * @return 缓存的序列化结果，没有缓存时返回 null
+     */
+    public synchronized byte[] getSnapshot(String key) {
+        return snapshots != null ? snapshots.get(key) : null;
+    }
+
+    /**
+     * 缓存序列化结果
+     *
+     * @param key      缓存的 key，如 {@link #SNAPSHOT_HEADER}
+     * @param snapshot 序列化结果，调用方不能再修改
+     */
+    public synchronized void setSnapshot(String key, byte[] snapshot) {
+        if (snapshots == null) {
+            snapshots = new HashMap<String, byte[]>(4);
+        }
+        snapshots.put(key, snapshot);
+    }
+
+    protected synchronized void removeSnapshot(String key) {
+        if (snapshots != null) {
+            snapshots.remove(key);
+        }
+    }
 }
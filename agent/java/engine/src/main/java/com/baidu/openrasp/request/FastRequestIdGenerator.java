@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.request;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 默认的请求 id 生成器，不使用 SecureRandom，生成过程无锁
+ *
+ * 128 位 id 由 48 位毫秒时间戳、32 位进程随机前缀、16 位线程编号和 32 位线程内计数组成，
+ * 同一毫秒内只有线程编号和计数都相同才会重复
+ * id 只用于关联请求和日志，不具备不可预测性，不能用作安全凭证
+ */
+public class FastRequestIdGenerator implements RequestIdGenerator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // 进程启动时随机生成，区分不同进程
+    private final int nodePrefix = new SecureRandom().nextInt();
+
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    private final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>() {
+        @Override
+        protected ThreadState initialValue() {
+            return new ThreadState(threadIndex.getAndIncrement());
+        }
+    };
+
+    @Override
+    public String generate() {
+        ThreadState state = threadState.get();
+        char[] id = new char[32];
+        putHex(id, 0, System.currentTimeMillis(), 12);
+        putHex(id, 12, nodePrefix, 8);
+        putHex(id, 20, state.index, 4);
+        putHex(id, 24, state.counter++, 8);
+        return new String(id);
+    }
+
+    private static void putHex(char[] dest, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dest[i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+
+    private static class ThreadState {
+        private final int index;
+        private int counter;
+
+        ThreadState(int index) {
+            this.index = index;
+            // 计数从随机值开始，降低线程编号回绕之后与旧线程重复的概率
+            this.counter = new Random().nextInt();
+        }
+    }
+
+}
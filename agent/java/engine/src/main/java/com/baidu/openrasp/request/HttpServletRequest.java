@@ -35,6 +35,7 @@ import java.util.regex.Pattern;
 public final class HttpServletRequest extends AbstractRequest {
     private static final Map<String, String[]> EMPTY_PARAM = new HashMap<String, String[]>();
     private static final Pattern PATTERN = Pattern.compile("\\d+(\\.\\d+)*");
+    private final HttpServletRequestAccessor accessor;
 
     /**
      * 请求实体
@@ -43,6 +44,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     public HttpServletRequest(Object request) {
         super(request);
+        this.accessor = HttpServletRequestAccessor.getAccessor(request);
     }
 
     /**
@@ -52,7 +54,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getLocalAddr() {
-        return Reflection.invokeStringMethod(request, "getLocalAddr", EMPTY_CLASS);
+        return accessor.getLocalAddr(request);
     }
 
     /**
@@ -62,7 +64,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getMethod() {
-        return Reflection.invokeStringMethod(request, "getMethod", EMPTY_CLASS);
+        return accessor.getMethod(request);
     }
 
     /**
@@ -72,7 +74,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getProtocol() {
-        return Reflection.invokeStringMethod(request, "getProtocol", EMPTY_CLASS);
+        return accessor.getProtocol(request);
     }
 
     /**
@@ -82,7 +84,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getAuthType() {
-        return Reflection.invokeStringMethod(request, "getAuthType", EMPTY_CLASS);
+        return accessor.getAuthType(request);
     }
 
     /**
@@ -92,7 +94,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getContentType() {
-        return Reflection.invokeStringMethod(request, "getContentType", EMPTY_CLASS);
+        return accessor.getContentType(request);
     }
 
     /**
@@ -102,7 +104,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getContextPath() {
-        return Reflection.invokeStringMethod(request, "getContextPath", EMPTY_CLASS);
+        return accessor.getContextPath(request);
     }
 
     /**
@@ -112,7 +114,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getRemoteAddr() {
-        return Reflection.invokeStringMethod(request, "getRemoteAddr", EMPTY_CLASS);
+        return accessor.getRemoteAddr(request);
     }
 
     /**
@@ -122,7 +124,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getRequestURI() {
-        return Reflection.invokeStringMethod(request, "getRequestURI", EMPTY_CLASS);
+        return accessor.getRequestURI(request);
     }
 
     /**
@@ -132,8 +134,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public StringBuffer getRequestURL() {
-        Object ret = Reflection.invokeMethod(request, "getRequestURL", EMPTY_CLASS);
-        return ret != null ? (StringBuffer) ret : null;
+        return accessor.getRequestURL(request);
     }
 
     /**
@@ -143,7 +144,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getServerName() {
-        return Reflection.invokeStringMethod(request, "getServerName", EMPTY_CLASS);
+        return accessor.getServerName(request);
     }
 
     /**
@@ -158,7 +159,7 @@ public final class HttpServletRequest extends AbstractRequest {
                 return null;
             }
         }
-        return Reflection.invokeStringMethod(request, "getParameter", STRING_CLASS, key);
+        return accessor.getParameter(request, key);
     }
 
     /**
@@ -173,8 +174,7 @@ public final class HttpServletRequest extends AbstractRequest {
                 return null;
             }
         }
-        Object ret = Reflection.invokeMethod(request, "getParameterNames", EMPTY_CLASS);
-        return ret != null ? (Enumeration) ret : null;
+        return accessor.getParameterNames(request);
     }
 
     /**
@@ -186,7 +186,7 @@ public final class HttpServletRequest extends AbstractRequest {
     public Map<String, String[]> getParameterMap() {
         Map<String, String[]> normalMap = null;
         if (canGetParameter || setCharacterEncodingFromConfig()) {
-            normalMap = (Map<String, String[]>) Reflection.invokeMethod(request, "getParameterMap", EMPTY_CLASS);
+            normalMap = (Map<String, String[]>) accessor.getParameterMap(request);
         }
         return getMergeMap(normalMap, formItemCache);
     }
@@ -198,7 +198,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getHeader(String key) {
-        return Reflection.invokeStringMethod(request, "getHeader", STRING_CLASS, key);
+        return accessor.getHeader(request, key);
     }
 
     /**
@@ -208,8 +208,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public Enumeration<String> getHeaderNames() {
-        Object ret = Reflection.invokeMethod(request, "getHeaderNames", EMPTY_CLASS);
-        return ret != null ? (Enumeration<String>) ret : null;
+        return accessor.getHeaderNames(request);
     }
 
     /**
@@ -219,7 +218,7 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getQueryString() {
-        return Reflection.invokeStringMethod(request, "getQueryString", EMPTY_CLASS);
+        return accessor.getQueryString(request);
     }
 
     /**
@@ -276,7 +275,23 @@ public final class HttpServletRequest extends AbstractRequest {
      */
     @Override
     public String getCharacterEncoding() {
-        return Reflection.invokeStringMethod(request, "getCharacterEncoding", EMPTY_CLASS);
+        return accessor.getCharacterEncoding(request);
+    }
+
+    /**
+     * (none-javadoc)
+     *
+     * @see AbstractRequest#isAsyncStarted()
+     */
+    @Override
+    protected boolean isAsyncStarted() {
+        try {
+            return Boolean.TRUE.equals(Reflection.getMethod(request.getClass(), "isAsyncStarted", EMPTY_CLASS)
+                    .invoke(request));
+        } catch (Throwable t) {
+            // Servlet 3.0 之前不支持异步请求
+            return false;
+        }
     }
 
     @Override
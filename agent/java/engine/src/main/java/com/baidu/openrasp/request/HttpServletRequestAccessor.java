@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.request;
+
+import com.baidu.openrasp.messaging.ErrorType;
+import com.baidu.openrasp.messaging.LogTool;
+import com.baidu.openrasp.tool.AccessorGenerator;
+import com.baidu.openrasp.tool.Reflection;
+
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * javax.servlet.http.HttpServletRequest 的访问器
+ *
+ * 该类的方法通过反射调用，服务器的请求类第一次出现时会针对其所实现的 servlet api 接口生成子类，
+ * 子类中的方法直接调用接口方法
+ */
+public class HttpServletRequestAccessor {
+
+    private static final String SERVLET_REQUEST_CLASS = "javax.servlet.http.HttpServletRequest";
+    private static final Class[] EMPTY_CLASS = new Class[]{};
+    private static final Class[] STRING_CLASS = new Class[]{String.class};
+
+    private static final HttpServletRequestAccessor REFLECTION_ACCESSOR = new HttpServletRequestAccessor();
+    // 按请求类的类加载器缓存访问器，同一个 servlet api 类加载器下的请求类共用一个访问器
+    // 生成的访问器只引用 servlet api 所在的类加载器，它与容器的生命周期相同，因此强引用保存，不会因为内存不足被回收后重复生成
+    // 应用重新部署时，应用自己的请求包装类所在的类加载器可以正常卸载，引擎卸载时通过 clear 清空
+    private static final WeakHashMap<ClassLoader, HttpServletRequestAccessor> accessors = new WeakHashMap<ClassLoader, HttpServletRequestAccessor>();
+
+    private static final String[] METHOD_SOURCES = new String[]{
+            stringGetter("getLocalAddr"),
+            stringGetter("getMethod"),
+            stringGetter("getProtocol"),
+            stringGetter("getAuthType"),
+            stringGetter("getContentType"),
+            stringGetter("getContextPath"),
+            stringGetter("getRemoteAddr"),
+            stringGetter("getRequestURI"),
+            stringGetter("getServerName"),
+            stringGetter("getQueryString"),
+            stringGetter("getCharacterEncoding"),
+            "public StringBuffer getRequestURL(Object request) {try {return ((%s) request).getRequestURL();}" +
+                    " catch (Throwable t) {handleError(\"getRequestURL\", t); return null;}}",
+            "public String getParameter(Object request, String key) {try {return ((%s) request).getParameter(key);}" +
+                    " catch (Throwable t) {handleError(\"getParameter\", t); return null;}}",
+            "public java.util.Enumeration getParameterNames(Object request) {try {return ((%s) request).getParameterNames();}" +
+                    " catch (Throwable t) {handleError(\"getParameterNames\", t); return null;}}",
+            "public java.util.Map getParameterMap(Object request) {try {return ((%s) request).getParameterMap();}" +
+                    " catch (Throwable t) {handleError(\"getParameterMap\", t); return null;}}",
+            "public String getHeader(Object request, String key) {try {return ((%s) request).getHeader(key);}" +
+                    " catch (Throwable t) {handleError(\"getHeader\", t); return null;}}",
+            "public java.util.Enumeration getHeaderNames(Object request) {try {return ((%s) request).getHeaderNames();}" +
+                    " catch (Throwable t) {handleError(\"getHeaderNames\", t); return null;}}"
+    };
+
+    /**
+     * 获取请求对象所对应的访问器，第一次遇到该请求类的类加载器时生成访问器
+     *
+     * @param request 请求实体
+     * @return 访问器，无法生成时返回反射实现的访问器
+     */
+    public static HttpServletRequestAccessor getAccessor(Object request) {
+        if (request == null || request.getClass().getClassLoader() == null) {
+            return REFLECTION_ACCESSOR;
+        }
+        ClassLoader loader = request.getClass().getClassLoader();
+        synchronized (accessors) {
+            HttpServletRequestAccessor accessor = accessors.get(loader);
+            if (accessor == null) {
+                accessor = getServletAccessor(request);
+                accessors.put(loader, accessor);
+            }
+            return accessor;
+        }
+    }
+
+    /**
+     * 引擎卸载时清空缓存的访问器
+     */
+    public static void clear() {
+        synchronized (accessors) {
+            accessors.clear();
+        }
+    }
+
+    private static HttpServletRequestAccessor getServletAccessor(Object request) {
+        try {
+            Class servletClass = Class.forName(SERVLET_REQUEST_CLASS, false, request.getClass().getClassLoader());
+            if (servletClass.isInstance(request)) {
+                ClassLoader servletLoader = servletClass.getClassLoader();
+                HttpServletRequestAccessor accessor = accessors.get(servletLoader);
+                if (accessor == null) {
+                    accessor = AccessorGenerator.generate(HttpServletRequestAccessor.class, servletClass, METHOD_SOURCES);
+                    if (accessor == null) {
+                        accessor = REFLECTION_ACCESSOR;
+                    }
+                    if (servletLoader != null) {
+                        accessors.put(servletLoader, accessor);
+                    }
+                }
+                return accessor;
+            }
+        } catch (Throwable t) {
+            LogTool.traceWarn(ErrorType.HOOK_ERROR, "failed to find servlet request class for "
+                    + request.getClass().getName() + ": " + t.getMessage());
+        }
+        return REFLECTION_ACCESSOR;
+    }
+
+    private static String stringGetter(String methodName) {
+        return "public String " + methodName + "(Object request) {try {return ((%s) request)." + methodName + "();}" +
+                " catch (Throwable t) {handleError(\"" + methodName + "\", t); return null;}}";
+    }
+
+    protected static void handleError(String methodName, Throwable t) {
+        LogTool.traceError(ErrorType.RUNTIME_ERROR, "Accessor call " + methodName + " failed: " + t.getMessage(), t);
+    }
+
+    public String getLocalAddr(Object request) {
+        return Reflection.invokeStringMethod(request, "getLocalAddr", EMPTY_CLASS);
+    }
+
+    public String getMethod(Object request) {
+        return Reflection.invokeStringMethod(request, "getMethod", EMPTY_CLASS);
+    }
+
+    public String getProtocol(Object request) {
+        return Reflection.invokeStringMethod(request, "getProtocol", EMPTY_CLASS);
+    }
+
+    public String getAuthType(Object request) {
+        return Reflection.invokeStringMethod(request, "getAuthType", EMPTY_CLASS);
+    }
+
+    public String getContentType(Object request) {
+        return Reflection.invokeStringMethod(request, "getContentType", EMPTY_CLASS);
+    }
+
+    public String getContextPath(Object request) {
+        return Reflection.invokeStringMethod(request, "getContextPath", EMPTY_CLASS);
+    }
+
+    public String getRemoteAddr(Object request) {
+        return Reflection.invokeStringMethod(request, "getRemoteAddr", EMPTY_CLASS);
+    }
+
+    public String getRequestURI(Object request) {
+        return Reflection.invokeStringMethod(request, "getRequestURI", EMPTY_CLASS);
+    }
+
+    public StringBuffer getRequestURL(Object request) {
+        Object ret = Reflection.invokeMethod(request, "getRequestURL", EMPTY_CLASS);
+        return ret != null ? (StringBuffer) ret : null;
+    }
+
+    public String getServerName(Object request) {
+        return Reflection.invokeStringMethod(request, "getServerName", EMPTY_CLASS);
+    }
+
+    public String getQueryString(Object request) {
+        return Reflection.invokeStringMethod(request, "getQueryString", EMPTY_CLASS);
+    }
+
+    public String getCharacterEncoding(Object request) {
+        return Reflection.invokeStringMethod(request, "getCharacterEncoding", EMPTY_CLASS);
+    }
+
+    public String getParameter(Object request, String key) {
+        return Reflection.invokeStringMethod(request, "getParameter", STRING_CLASS, key);
+    }
+
+    public Enumeration getParameterNames(Object request) {
+        Object ret = Reflection.invokeMethod(request, "getParameterNames", EMPTY_CLASS);
+        return ret != null ? (Enumeration) ret : null;
+    }
+
+    public Map getParameterMap(Object request) {
+        Object ret = Reflection.invokeMethod(request, "getParameterMap", EMPTY_CLASS);
+        return ret != null ? (Map) ret : null;
+    }
+
+    public String getHeader(Object request, String key) {
+        return Reflection.invokeStringMethod(request, "getHeader", STRING_CLASS, key);
+    }
+
+    public Enumeration getHeaderNames(Object request) {
+        Object ret = Reflection.invokeMethod(request, "getHeaderNames", EMPTY_CLASS);
+        return ret != null ? (Enumeration) ret : null;
+    }
+
+}
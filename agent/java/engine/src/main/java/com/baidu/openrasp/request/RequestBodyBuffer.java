@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.request;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.ref.WeakReference;
+
+/**
+ * 保存请求 body 的定长缓冲区，容量由 body.maxbytes 决定，写满之后丢弃后续数据，不会扩容复制
+ *
+ * 缓冲区按线程复用，请求结束时通过 {@link #release(AbstractRequest, boolean)} 归还，
+ * 只有请求结束之后仍会被读取的请求（例如异步请求）才保留一份只包含已有内容的副本
+ * 该类不是线程安全的，由 {@link AbstractRequest} 加锁访问
+ */
+final class RequestBodyBuffer {
+
+    // 超过该容量的缓冲区不复用，避免每个线程长期占用过多内存
+    private static final int MAX_POOLED_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<RequestBodyBuffer> pool = new ThreadLocal<RequestBodyBuffer>();
+
+    private final byte[] bytes;
+    private final char[] chars;
+    private final boolean pooled;
+    private int byteCount = 0;
+    private int charCount = 0;
+    private boolean hasBytes = false;
+    private boolean hasChars = false;
+    // 当前使用该缓冲区的请求，只在所属线程中读写，弱引用避免请求结束后仍被线程持有
+    private WeakReference<AbstractRequest> owner;
+
+    private RequestBodyBuffer(int byteCapacity, int charCapacity, boolean pooled) {
+        this.bytes = new byte[byteCapacity];
+        this.chars = new char[charCapacity];
+        this.pooled = pooled;
+    }
+
+    /**
+     * 为请求获取当前线程的缓冲区
+     *
+     * @param request     使用缓冲区的请求
+     * @param maxBodySize body 最大保存长度
+     * @return 清空之后的缓冲区
+     */
+    static RequestBodyBuffer acquire(AbstractRequest request, int maxBodySize) {
+        if (maxBodySize > MAX_POOLED_SIZE) {
+            return new RequestBodyBuffer(maxBodySize, maxBodySize / 2, false);
+        }
+        RequestBodyBuffer buffer = pool.get();
+        if (buffer == null || buffer.bytes.length != maxBodySize) {
+            buffer = new RequestBodyBuffer(maxBodySize, maxBodySize / 2, true);
+            pool.set(buffer);
+        } else {
+            // 上一个请求没有经过请求结束 hook 点归还缓冲区时，先让它保留一份副本
+            AbstractRequest previous = buffer.owner != null ? buffer.owner.get() : null;
+            if (previous != null && previous != request) {
+                previous.detachBodyBuffer(buffer);
+            }
+            buffer.reset();
+        }
+        buffer.owner = new WeakReference<AbstractRequest>(request);
+        return buffer;
+    }
+
+    /**
+     * 请求结束时归还缓冲区
+     *
+     * @param request 使用缓冲区的请求
+     * @param keep    请求结束之后是否仍需要读取 body
+     * @return 请求继续持有的缓冲区，不需要保留时返回 null
+     */
+    RequestBodyBuffer release(AbstractRequest request, boolean keep) {
+        if (owner != null && owner.get() == request) {
+            owner = null;
+        }
+        if (!keep) {
+            return null;
+        }
+        return pooled ? copy() : this;
+    }
+
+    /**
+     * 复制一份只包含已有内容的缓冲区，不放回线程复用
+     * 请求离开所属线程之后不会再有数据写入，副本不需要保留剩余容量
+     */
+    RequestBodyBuffer copy() {
+        RequestBodyBuffer copy = new RequestBodyBuffer(byteCount, charCount, false);
+        System.arraycopy(bytes, 0, copy.bytes, 0, byteCount);
+        System.arraycopy(chars, 0, copy.chars, 0, charCount);
+        copy.byteCount = byteCount;
+        copy.charCount = charCount;
+        copy.hasBytes = hasBytes;
+        copy.hasChars = hasChars;
+        return copy;
+    }
+
+    private void reset() {
+        byteCount = 0;
+        charCount = 0;
+        hasBytes = false;
+        hasChars = false;
+    }
+
+    /**
+     * @return 是否写入过字节数据，超出容量被丢弃的写入也算在内
+     */
+    boolean hasBytes() {
+        return hasBytes;
+    }
+
+    boolean hasChars() {
+        return hasChars;
+    }
+
+    /**
+     * @return 是否有数据被写入
+     */
+    boolean appendByte(int b) {
+        hasBytes = true;
+        if (byteCount < bytes.length) {
+            bytes[byteCount++] = (byte) b;
+            return true;
+        }
+        return false;
+    }
+
+    boolean appendBytes(byte[] src, int offset, int len) {
+        hasBytes = true;
+        len = Math.min(len, bytes.length - byteCount);
+        if (len > 0) {
+            System.arraycopy(src, offset, bytes, byteCount, len);
+            byteCount += len;
+            return true;
+        }
+        return false;
+    }
+
+    boolean appendChar(int c) {
+        hasChars = true;
+        if (charCount < chars.length) {
+            chars[charCount++] = (char) c;
+            return true;
+        }
+        return false;
+    }
+
+    boolean appendChars(char[] src, int offset, int len) {
+        hasChars = true;
+        len = Math.min(len, chars.length - charCount);
+        if (len > 0) {
+            System.arraycopy(src, offset, chars, charCount, len);
+            charCount += len;
+            return true;
+        }
+        return false;
+    }
+
+    byte[] toByteArray() {
+        byte[] result = new byte[byteCount];
+        System.arraycopy(bytes, 0, result, 0, byteCount);
+        return result;
+    }
+
+    /**
+     * 将 body 解码为字符串，字节数据优先
+     *
+     * @param encoding 字节数据的编码，为空时使用默认编码
+     * @return body 字符串，没有写入过数据时返回 null
+     */
+    String decode(String encoding) {
+        if (hasBytes) {
+            if (encoding != null && encoding.length() > 0) {
+                try {
+                    return new String(bytes, 0, byteCount, encoding);
+                } catch (UnsupportedEncodingException e) {
+                    return new String(bytes, 0, byteCount);
+                }
+            }
+            return new String(bytes, 0, byteCount);
+        } else if (hasChars) {
+            return new String(chars, 0, charCount);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.request;
+
+/**
+ * 请求 id 生成器，通过 {@link AbstractRequest#setRequestIdGenerator(RequestIdGenerator)} 替换默认实现
+ */
+public interface RequestIdGenerator {
+
+    /**
+     * 生成请求 id
+     *
+     * @return 32 位十六进制字符串，与 X-Request-ID 响应头和日志中的 request_id 格式一致
+     */
+    String generate();
+
+}
@@ -39,6 +39,7 @@ public class HttpServletResponse {
     public static final String CONTENT_TYPE_XML_VALUE = "application/xml";
     public static final String CONTENT_TYPE_TEXT_XML = "text/xml";
     private Object response;
+    private HttpServletResponseAccessor accessor;
 
     /**
      * constructor
@@ -47,6 +48,7 @@ public class HttpServletResponse {
      */
     public HttpServletResponse(Object response) {
         this.response = response;
+        this.accessor = HttpServletResponseAccessor.getAccessor(response);
     }
 
     /**
@@ -66,7 +68,7 @@ public class HttpServletResponse {
      */
     public void setHeader(String key, String value) {
         if (response != null) {
-            Reflection.invokeMethod(response, "setHeader", new Class[]{String.class, String.class}, key, value);
+            accessor.setHeader(response, key, value);
         }
     }
 
@@ -78,7 +80,7 @@ public class HttpServletResponse {
      */
     public void setIntHeader(String key, int value) {
         if (response != null) {
-            Reflection.invokeMethod(response, "setIntHeader", new Class[]{String.class, int.class}, key, value);
+            accessor.setIntHeader(response, key, value);
         }
     }
 
@@ -90,7 +92,7 @@ public class HttpServletResponse {
      */
     public void addHeader(String key, String value) {
         if (response != null) {
-            Reflection.invokeMethod(response, "addHeader", new Class[]{String.class, String.class}, key, value);
+            accessor.addHeader(response, key, value);
         }
     }
 
@@ -102,7 +104,7 @@ public class HttpServletResponse {
      */
     public String getHeader(String key) {
         if (response != null) {
-            Object header = Reflection.invokeMethod(response, "getHeader", new Class[]{String.class}, key);
+            Object header = accessor.getHeader(response, key);
             if (header != null) {
                 return header.toString();
             }
@@ -112,7 +114,7 @@ public class HttpServletResponse {
 
     public String getCharacterEncoding() {
         if (response != null) {
-            Object enc = Reflection.invokeMethod(response, "getCharacterEncoding", new Class[]{});
+            Object enc = accessor.getCharacterEncoding(response);
             if (enc != null) {
                 return enc.toString();
             }
@@ -122,7 +124,7 @@ public class HttpServletResponse {
 
     public String getContentType() {
         if (response != null) {
-            Object contentType = Reflection.invokeMethod(response, "getContentType", new Class[]{});
+            Object contentType = accessor.getContentType(response);
             if (contentType != null) {
                 return contentType.toString();
             }
@@ -138,7 +140,7 @@ public class HttpServletResponse {
     public boolean resetBuffer() {
         if (response != null) {
             try {
-                Reflection.invokeMethod(response, "resetBuffer", new Class[]{});
+                accessor.resetBuffer(response);
             } catch (Exception e) {
                 return false;
             }
@@ -155,7 +157,7 @@ public class HttpServletResponse {
     public boolean reset() {
         if (response != null) {
             try {
-                Reflection.invokeMethod(response, "reset", new Class[]{});
+                accessor.reset(response);
             } catch (Exception e) {
                 return false;
             }
@@ -172,8 +174,8 @@ public class HttpServletResponse {
             try {
                 int statusCode = Config.getConfig().getBlockStatusCode();
                 String blockUrl = Config.getConfig().getBlockUrl();
-                boolean isCommitted = (Boolean) Reflection.invokeMethod(response, "isCommitted", new Class[]{});
-                String requestId = HookHandler.requestCache.get().getRequestId();
+                boolean isCommitted = (Boolean) accessor.isCommitted(response);
+                String requestId = HookHandler.getRequestCache().getRequestId();
                 String contentType = getResponseContentType();
                 String script;
                 if (contentType.startsWith(CONTENT_TYPE_JSON_VALUE)) {
@@ -189,7 +191,7 @@ public class HttpServletResponse {
                 } else {
                     if (!isCommitted) {
                         resetBuffer();
-                        Reflection.invokeMethod(response, "setStatus", new Class[]{int.class}, statusCode);
+                        accessor.setStatus(response, statusCode);
                         if (statusCode >= 300 && statusCode <= 399) {
                             setHeader("Location", blockUrl.replace(CONTENT_TYPE_REPLACE_REQUEST_ID, requestId));
                         }
@@ -209,9 +211,9 @@ public class HttpServletResponse {
     public void sendContent(String content, boolean close) {
         Object printer = null;
 
-        printer = Reflection.invokeMethod(response, "getWriter", new Class[]{});
+        printer = accessor.getWriter(response);
         if (printer == null) {
-            printer = Reflection.invokeMethod(response, "getOutputStream", new Class[]{});
+            printer = accessor.getOutputStream(response);
         }
         Reflection.invokeMethod(printer, "print", new Class[]{String.class}, content);
         Reflection.invokeMethod(printer, "flush", new Class[]{});
@@ -226,7 +228,7 @@ public class HttpServletResponse {
     public String getResponseContentType() {
         String contentType = getContentType();
         if (contentType == null) {
-            contentType = HookHandler.requestCache.get().getHeader("Accept");
+            contentType = HookHandler.getRequestCache().getHeader("Accept");
             if (!contentType.startsWith(CONTENT_TYPE_JSON_VALUE) && !contentType.startsWith(CONTENT_TYPE_XML_VALUE) && !contentType.startsWith(CONTENT_TYPE_TEXT_XML)) {
                 contentType = CONTENT_TYPE_HTML_VALUE;
             }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.response;
+
+import com.baidu.openrasp.messaging.ErrorType;
+import com.baidu.openrasp.messaging.LogTool;
+import com.baidu.openrasp.tool.AccessorGenerator;
+import com.baidu.openrasp.tool.Reflection;
+
+import java.util.WeakHashMap;
+
+/**
+ * javax.servlet.http.HttpServletResponse 的访问器
+ *
+ * 该类的方法通过反射调用，服务器的响应类第一次出现时会针对其所实现的 servlet api 接口生成子类，
+ * 子类中的方法直接调用接口方法
+ */
+public class HttpServletResponseAccessor {
+
+    private static final String SERVLET_RESPONSE_CLASS = "javax.servlet.http.HttpServletResponse";
+    private static final Class[] EMPTY_CLASS = new Class[]{};
+
+    private static final HttpServletResponseAccessor REFLECTION_ACCESSOR = new HttpServletResponseAccessor();
+    // 按响应类的类加载器缓存访问器，同一个 servlet api 类加载器下的响应类共用一个访问器
+    // 生成的访问器只引用 servlet api 所在的类加载器，它与容器的生命周期相同，因此强引用保存，不会因为内存不足被回收后重复生成
+    // 应用重新部署时，应用自己的响应包装类所在的类加载器可以正常卸载，引擎卸载时通过 clear 清空
+    private static final WeakHashMap<ClassLoader, HttpServletResponseAccessor> accessors = new WeakHashMap<ClassLoader, HttpServletResponseAccessor>();
+
+    private static final String[] METHOD_SOURCES = new String[]{
+            "public void setHeader(Object response, String key, String value) {try {((%s) response).setHeader(key, value);}" +
+                    " catch (Throwable t) {handleError(\"setHeader\", t);}}",
+            "public void setIntHeader(Object response, String key, int value) {try {((%s) response).setIntHeader(key, value);}" +
+                    " catch (Throwable t) {handleError(\"setIntHeader\", t);}}",
+            "public void addHeader(Object response, String key, String value) {try {((%s) response).addHeader(key, value);}" +
+                    " catch (Throwable t) {handleError(\"addHeader\", t);}}",
+            "public void setStatus(Object response, int status) {try {((%s) response).setStatus(status);}" +
+                    " catch (Throwable t) {handleError(\"setStatus\", t);}}",
+            // getHeader 从 servlet 3.0 开始提供，低版本会回退到反射调用
+            "public Object getHeader(Object response, String key) {try {return ((%s) response).getHeader(key);}" +
+                    " catch (Throwable t) {handleError(\"getHeader\", t); return null;}}",
+            "public Object getCharacterEncoding(Object response) {try {return ((%s) response).getCharacterEncoding();}" +
+                    " catch (Throwable t) {handleError(\"getCharacterEncoding\", t); return null;}}",
+            "public Object getContentType(Object response) {try {return ((%s) response).getContentType();}" +
+                    " catch (Throwable t) {handleError(\"getContentType\", t); return null;}}",
+            "public Object isCommitted(Object response) {try {return Boolean.valueOf(((%s) response).isCommitted());}" +
+                    " catch (Throwable t) {handleError(\"isCommitted\", t); return null;}}",
+            "public void resetBuffer(Object response) {try {((%s) response).resetBuffer();}" +
+                    " catch (Throwable t) {handleError(\"resetBuffer\", t);}}",
+            "public void reset(Object response) {try {((%s) response).reset();}" +
+                    " catch (Throwable t) {handleError(\"reset\", t);}}",
+            "public Object getWriter(Object response) {try {return ((%s) response).getWriter();}" +
+                    " catch (Throwable t) {handleError(\"getWriter\", t); return null;}}",
+            "public Object getOutputStream(Object response) {try {return ((%s) response).getOutputStream();}" +
+                    " catch (Throwable t) {handleError(\"getOutputStream\", t); return null;}}"
+    };
+
+    /**
+     * 获取响应对象所对应的访问器，第一次遇到该响应类的类加载器时生成访问器
+     *
+     * @param response 响应实体
+     * @return 访问器，无法生成时返回反射实现的访问器
+     */
+    public static HttpServletResponseAccessor getAccessor(Object response) {
+        if (response == null || response.getClass().getClassLoader() == null) {
+            return REFLECTION_ACCESSOR;
+        }
+        ClassLoader loader = response.getClass().getClassLoader();
+        synchronized (accessors) {
+            HttpServletResponseAccessor accessor = accessors.get(loader);
+            if (accessor == null) {
+                accessor = getServletAccessor(response);
+                accessors.put(loader, accessor);
+            }
+            return accessor;
+        }
+    }
+
+    /**
+     * 引擎卸载时清空缓存的访问器
+     */
+    public static void clear() {
+        synchronized (accessors) {
+            accessors.clear();
+        }
+    }
+
+    private static HttpServletResponseAccessor getServletAccessor(Object response) {
+        try {
+            Class servletClass = Class.forName(SERVLET_RESPONSE_CLASS, false, response.getClass().getClassLoader());
+            if (servletClass.isInstance(response)) {
+                ClassLoader servletLoader = servletClass.getClassLoader();
+                HttpServletResponseAccessor accessor = accessors.get(servletLoader);
+                if (accessor == null) {
+                    accessor = AccessorGenerator.generate(HttpServletResponseAccessor.class, servletClass, METHOD_SOURCES);
+                    if (accessor == null) {
+                        accessor = REFLECTION_ACCESSOR;
+                    }
+                    if (servletLoader != null) {
+                        accessors.put(servletLoader, accessor);
+                    }
+                }
+                return accessor;
+            }
+        } catch (Throwable t) {
+            LogTool.traceWarn(ErrorType.HOOK_ERROR, "failed to find servlet response class for "
+                    + response.getClass().getName() + ": " + t.getMessage());
+        }
+        return REFLECTION_ACCESSOR;
+    }
+
+    protected static void handleError(String methodName, Throwable t) {
+        LogTool.traceError(ErrorType.RUNTIME_ERROR, "Accessor call " + methodName + " failed: " + t.getMessage(), t);
+    }
+
+    public void setHeader(Object response, String key, String value) {
+        Reflection.invokeMethod(response, "setHeader", new Class[]{String.class, String.class}, key, value);
+    }
+
+    public void setIntHeader(Object response, String key, int value) {
+        Reflection.invokeMethod(response, "setIntHeader", new Class[]{String.class, int.class}, key, value);
+    }
+
+    public void addHeader(Object response, String key, String value) {
+        Reflection.invokeMethod(response, "addHeader", new Class[]{String.class, String.class}, key, value);
+    }
+
+    public void setStatus(Object response, int status) {
+        Reflection.invokeMethod(response, "setStatus", new Class[]{int.class}, status);
+    }
+
+    public Object getHeader(Object response, String key) {
+        return Reflection.invokeMethod(response, "getHeader", new Class[]{String.class}, key);
+    }
+
+    public Object getCharacterEncoding(Object response) {
+        return Reflection.invokeMethod(response, "getCharacterEncoding", EMPTY_CLASS);
+    }
+
+    public Object getContentType(Object response) {
+        return Reflection.invokeMethod(response, "getContentType", EMPTY_CLASS);
+    }
+
+    public Object isCommitted(Object response) {
+        return Reflection.invokeMethod(response, "isCommitted", EMPTY_CLASS);
+    }
+
+    public void resetBuffer(Object response) {
+        Reflection.invokeMethod(response, "resetBuffer", EMPTY_CLASS);
+    }
+
+    public void reset(Object response) {
+        Reflection.invokeMethod(response, "reset", EMPTY_CLASS);
+    }
+
+    public Object getWriter(Object response) {
+        return Reflection.invokeMethod(response, "getWriter", EMPTY_CLASS);
+    }
+
+    public Object getOutputStream(Object response) {
+        return Reflection.invokeMethod(response, "getOutputStream", EMPTY_CLASS);
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import com.baidu.openrasp.HookHandler;
+import com.baidu.openrasp.messaging.ErrorType;
+import com.baidu.openrasp.messaging.LogTool;
+import com.baidu.openrasp.transformer.CustomClassTransformer;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 使用 javassist 针对服务器的具体类生成直接调用的访问器，替代逐次的反射调用
+ * 生成的访问器继承自引擎中的基类，基类中的方法为反射实现，生成失败的方法会回退到反射调用
+ */
+public class AccessorGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(AccessorGenerator.class.getName());
+
+    private static final AtomicInteger index = new AtomicInteger(0);
+
+    /**
+     * 生成访问器实例
+     *
+     * @param baseClass     访问器基类，必须为 public 并且有 public 无参构造函数
+     * @param targetClass   被访问的服务器类，生成的代码针对该类编译
+     * @param methodSources 覆盖基类方法的源代码，其中 {@code %s} 会被替换为 targetClass 的类名
+     * @return 访问器实例，生成失败返回 null
+     */
+    public static <T> T generate(Class<T> baseClass, Class targetClass, String[] methodSources) {
+        ClassLoader targetLoader = targetClass.getClassLoader();
+        if (targetLoader == null) {
+            return null;
+        }
+        HookHandler.preShieldHook();
+        try {
+            String className = baseClass.getName() + "$$Generated" + index.incrementAndGet();
+            int count = 0;
+            byte[] bytecode;
+            ClassPool parentPool = CustomClassTransformer.getClassPool(targetLoader);
+            // 父 ClassPool 同时被类转换使用，需要与其持有同一把锁
+            synchronized (parentPool) {
+                // 缓存的 ClassPool 不能修改类路径，生成的类也不应留在缓存中
+                ClassPool classPool = new ClassPool(parentPool);
+                classPool.childFirstLookup = true;
+                classPool.insertClassPath(new ClassClassPath(baseClass));
+                CtClass ctClass = classPool.makeClass(className, classPool.get(baseClass.getName()));
+                try {
+                    for (String source : methodSources) {
+                        try {
+                            ctClass.addMethod(CtNewMethod.make(String.format(source, targetClass.getName()), ctClass));
+                            count++;
+                        } catch (Exception e) {
+                            // 低版本的 servlet api 中可能不存在该方法，回退到基类中的反射调用
+                            LogTool.traceWarn(ErrorType.HOOK_ERROR, "failed to generate accessor method for "
+                                    + targetClass.getName() + ": " + e.getMessage());
+                        }
+                    }
+                    bytecode = ctClass.toBytecode();
+                } finally {
+                    ctClass.detach();
+                }
+            }
+            AccessorClassLoader loader = new AccessorClassLoader(targetLoader, baseClass.getClassLoader());
+            Class accessorClass = loader.define(className, bytecode);
+            LOGGER.info("generate accessor " + className + " for " + targetClass.getName()
+                    + " with " + count + " direct methods");
+            return baseClass.cast(accessorClass.newInstance());
+        } catch (Throwable t) {
+            LogTool.warn(ErrorType.HOOK_ERROR, "failed to generate accessor for "
+                    + targetClass.getName() + ": " + t.getMessage(), t);
+            return null;
+        } finally {
+            HookHandler.postShieldHook();
+        }
+    }
+
+    /**
+     * 访问器的类加载器，引擎中的类从引擎加载器中加载，其余类从服务器类的加载器中加载
+     */
+    private static class AccessorClassLoader extends ClassLoader {
+
+        private final ClassLoader engineLoader;
+
+        AccessorClassLoader(ClassLoader targetLoader, ClassLoader engineLoader) {
+            super(targetLoader);
+            this.engineLoader = engineLoader;
+        }
+
+        Class define(String className, byte[] bytecode) {
+            return defineClass(className, bytecode, 0, bytecode.length);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz != null) {
+                return clazz;
+            }
+            if (name.startsWith("com.baidu.openrasp.") && engineLoader != null) {
+                return engineLoader.loadClass(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 文件 hook 点使用的规范路径缓存，以绝对路径为 key，避免同一个文件被频繁打开时反复解析符号链接
+ *
+ * 缓存只保留很短的时间，过期之后重新读取文件系统，符号链接或者文件被替换最多在一个过期时间内检测不到
+ * 只缓存文件存在的结果，文件不存在时每次都重新判断，避免新创建的文件跳过检测
+ * 同一个路径的存在结果和规范路径共用一个过期时间，补充另一项时不会延长缓存时间
+ */
+public class CanonicalPathCache {
+
+    private static final int CACHE_SIZE = 4096;
+    private static final long TTL_MILLIS = 1000;
+
+    private static final ConcurrentLRUCache<String, CacheEntry> cache = new ConcurrentLRUCache<String, CacheEntry>(CACHE_SIZE);
+
+    /**
+     * 判断文件是否存在
+     *
+     * @param file 文件
+     * @return 文件是否存在
+     */
+    public static boolean exists(File file) {
+        String absPath = file.getAbsolutePath();
+        CacheEntry entry = getEntry(absPath);
+        if (entry != null && entry.exists) {
+            return true;
+        }
+        boolean exists = file.exists();
+        if (exists) {
+            cache.put(absPath, entry != null ? new CacheEntry(true, entry.canonicalPath, entry.expireAt)
+                    : new CacheEntry(true, null, System.currentTimeMillis() + TTL_MILLIS));
+        }
+        return exists;
+    }
+
+    /**
+     * 获取文件的规范路径
+     *
+     * @param file 文件
+     * @return 规范路径，获取失败时返回绝对路径
+     */
+    public static String getCanonicalPath(File file) {
+        String absPath = file.getAbsolutePath();
+        CacheEntry entry = getEntry(absPath);
+        if (entry != null && entry.canonicalPath != null) {
+            return entry.canonicalPath;
+        }
+        String canonicalPath;
+        try {
+            canonicalPath = file.getCanonicalPath();
+        } catch (IOException e) {
+            return absPath;
+        }
+        cache.put(absPath, entry != null ? new CacheEntry(entry.exists, canonicalPath, entry.expireAt)
+                : new CacheEntry(false, canonicalPath, System.currentTimeMillis() + TTL_MILLIS));
+        return canonicalPath;
+    }
+
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 过期的缓存不删除，由之后的 put 原地覆盖，避免频繁访问的路径在 LRU 中反复删除和插入
+     */
+    private static CacheEntry getEntry(String absPath) {
+        CacheEntry entry = cache.get(absPath);
+        if (entry != null && System.currentTimeMillis() >= entry.expireAt) {
+            return null;
+        }
+        return entry;
+    }
+
+    private static class CacheEntry {
+        private final boolean exists;
+        private final String canonicalPath;
+        private final long expireAt;
+
+        CacheEntry(boolean exists, String canonicalPath, long expireAt) {
+            this.exists = exists;
+            this.canonicalPath = canonicalPath;
+            this.expireAt = expireAt;
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 读操作无锁的近似 LRU 缓存，用于检测结果缓存等多线程频繁读取的场景
+ *
+ * 数据保存在 {@link ConcurrentHashMap} 中，读取时只设置访问标记，
+ * 写入超出容量时使用 CLOCK (second chance) 算法淘汰最近未被访问的元素，只有淘汰过程需要加锁
+ */
+public class ConcurrentLRUCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentLinkedQueue<Node<K, V>> evictionQueue = new ConcurrentLinkedQueue<Node<K, V>>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    // 已经从 map 中删除、但仍留在淘汰队列中的元素数量
+    private final AtomicInteger removedCount = new AtomicInteger(0);
+    private final Lock evictionLock = new ReentrantLock();
+    private final int cacheSize;
+
+    /**
+     * Creates a new concurrent LRU cache.
+     *
+     * @param cacheSize the maximum number of entries that will be kept in this cache.
+     */
+    public ConcurrentLRUCache(int cacheSize) {
+        this.cacheSize = cacheSize;
+        int concurrencyLevel = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+        this.map = new ConcurrentHashMap<K, Node<K, V>>(Math.max(16, cacheSize), 0.75f, concurrencyLevel);
+    }
+
+    /**
+     * get an entry from the cache.
+     *
+     * @param key the key whose associated value is to be returned.
+     * @return the value associated to this key, or null if no value with this key exists in the cache.
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        node.markVisited();
+        return node.value;
+    }
+
+    /**
+     * Add an entry to this cache.
+     *
+     * @param key   the key with which the specified value is to be associated.
+     * @param value a value to be associated with the specified key, null is allowed.
+     */
+    public void put(K key, V value) {
+        if (cacheSize <= 0) {
+            return;
+        }
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            Node<K, V> newNode = new Node<K, V>(key, value);
+            node = map.putIfAbsent(key, newNode);
+            if (node == null) {
+                evictionQueue.offer(newNode);
+                if (size.incrementAndGet() > cacheSize) {
+                    evict();
+                }
+                return;
+            }
+        }
+        node.value = value;
+        node.markVisited();
+    }
+
+    /**
+     * Return the existence of the key in the cache.
+     *
+     * @param key the key to be checked.
+     */
+    public boolean isContainsKey(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            return false;
+        }
+        node.markVisited();
+        return true;
+    }
+
+    /**
+     * remove element from the cache.
+     */
+    public void remove(K key) {
+        Node<K, V> node = map.remove(key);
+        if (node != null) {
+            node.removed = true;
+            size.decrementAndGet();
+            // 被删除的元素只在淘汰时出队，没有触发淘汰时需要主动清理，避免反复删除和写入使队列无限增长
+            if (removedCount.incrementAndGet() > Math.max(cacheSize, 16)) {
+                purgeRemoved();
+            }
+        }
+    }
+
+    /**
+     * Clear the cache.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            Node<K, V> node;
+            while ((node = evictionQueue.poll()) != null) {
+                if (map.remove(node.key, node)) {
+                    size.decrementAndGet();
+                }
+            }
+            removedCount.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Return the real size of the cache.
+     */
+    public int realSize() {
+        return size.get();
+    }
+
+    /**
+     * Return the max size of the cache.
+     */
+    public int maxSize() {
+        return cacheSize;
+    }
+
+    /**
+     * 淘汰元素直到缓存大小不超过容量，被访问过的元素清除访问标记后重新入队获得第二次机会
+     */
+    private void evict() {
+        evictionLock.lock();
+        try {
+            while (size.get() > cacheSize) {
+                Node<K, V> node = evictionQueue.poll();
+                if (node == null) {
+                    break;
+                }
+                if (node.removed) {
+                    removedCount.decrementAndGet();
+                } else if (node.visited) {
+                    node.visited = false;
+                    evictionQueue.offer(node);
+                } else if (map.remove(node.key, node)) {
+                    size.decrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 从淘汰队列中清除已经被删除的元素
+     */
+    private void purgeRemoved() {
+        if (!evictionLock.tryLock()) {
+            // 其他线程正在淘汰或清理
+            return;
+        }
+        try {
+            Iterator<Node<K, V>> iterator = evictionQueue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().removed) {
+                    iterator.remove();
+                }
+            }
+            // 计数只用于判断是否需要清理，不要求精确
+            removedCount.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile boolean visited = false;
+        // 已经通过 remove 从 map 中删除，淘汰时直接丢弃
+        volatile boolean removed = false;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        void markVisited() {
+            // 只在状态变化时写入，避免多线程读取同一元素时的缓存行竞争
+            if (!visited) {
+                visited = true;
+            }
+        }
+    }
+
+}
@@ -54,11 +54,7 @@ public class FileUtil {
                 file = new File(absPath.substring(0, index));
             }
         }
-        try {
-            return file.getCanonicalPath();
-        } catch (IOException e) {
-            return absPath;
-        }
+        return CanonicalPathCache.getCanonicalPath(file);
     }
 
     /**
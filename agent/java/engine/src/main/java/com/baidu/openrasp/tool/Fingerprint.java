@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+/**
+ * 128 位的数据指纹，用作检测结果缓存的 key
+ *
+ * 使用 MurmurHash3 x64_128 算法计算，相比 32 位 hashCode 碰撞概率可以忽略，
+ * 相比保存完整的参数数据占用内存固定
+ */
+public final class Fingerprint {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long high;
+    private final long low;
+
+    private Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * 计算数据的指纹
+     *
+     * @param seed   种子，不同种子计算出的指纹互不相同，可用于区分检测类型
+     * @param data   数据
+     * @param length 数据长度
+     * @return 指纹
+     */
+    public static Fingerprint of(int seed, byte[] data, int length) {
+        long h1 = seed & 0x00000000ffffffffL;
+        long h2 = h1;
+        int blocks = length >>> 4;
+        for (int i = 0; i < blocks; i++) {
+            int offset = i << 4;
+            long k1 = getLong(data, offset);
+            long k2 = getLong(data, offset + 8);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = blocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15:
+                k2 ^= ((long) data[tail + 14] & 0xff) << 48;
+            case 14:
+                k2 ^= ((long) data[tail + 13] & 0xff) << 40;
+            case 13:
+                k2 ^= ((long) data[tail + 12] & 0xff) << 32;
+            case 12:
+                k2 ^= ((long) data[tail + 11] & 0xff) << 24;
+            case 11:
+                k2 ^= ((long) data[tail + 10] & 0xff) << 16;
+            case 10:
+                k2 ^= ((long) data[tail + 9] & 0xff) << 8;
+            case 9:
+                k2 ^= ((long) data[tail + 8] & 0xff);
+                k2 *= C2;
+                k2 = Long.rotateLeft(k2, 33);
+                k2 *= C1;
+                h2 ^= k2;
+            case 8:
+                k1 ^= ((long) data[tail + 7] & 0xff) << 56;
+            case 7:
+                k1 ^= ((long) data[tail + 6] & 0xff) << 48;
+            case 6:
+                k1 ^= ((long) data[tail + 5] & 0xff) << 40;
+            case 5:
+                k1 ^= ((long) data[tail + 4] & 0xff) << 32;
+            case 4:
+                k1 ^= ((long) data[tail + 3] & 0xff) << 24;
+            case 3:
+                k1 ^= ((long) data[tail + 2] & 0xff) << 16;
+            case 2:
+                k1 ^= ((long) data[tail + 1] & 0xff) << 8;
+            case 1:
+                k1 ^= ((long) data[tail] & 0xff);
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= C2;
+                h1 ^= k1;
+            default:
+                break;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new Fingerprint(h1, h2);
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        return ((long) data[offset] & 0xff)
+                | (((long) data[offset + 1] & 0xff) << 8)
+                | (((long) data[offset + 2] & 0xff) << 16)
+                | (((long) data[offset + 3] & 0xff) << 24)
+                | (((long) data[offset + 4] & 0xff) << 32)
+                | (((long) data[offset + 5] & 0xff) << 40)
+                | (((long) data[offset + 6] & 0xff) << 48)
+                | (((long) data[offset + 7] & 0xff) << 56);
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) low;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Fingerprint)) {
+            return false;
+        }
+        Fingerprint other = (Fingerprint) obj;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+}
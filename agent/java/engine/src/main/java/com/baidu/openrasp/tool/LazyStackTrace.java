@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * hook 点参数中延迟获取的栈，第一次读取时才获取当前线程的栈，之后不再变化
+ *
+ * 获取栈时已经进入了检测流程，栈顶是参数序列化和检测相关的栈帧，因此先找到 hook 点类所在的栈帧，
+ * 从该位置开始按照 {@link StackTrace#filter(StackTraceElement[])} 的规则过滤，结果与在 hook 点中直接获取相同
+ * 只能在创建它的线程中读取，其他线程读取时返回空栈
+ */
+public class LazyStackTrace extends AbstractList<String> {
+
+    private final String hookClassName;
+    private final Thread thread;
+    private List<String> stack;
+
+    LazyStackTrace(String hookClassName) {
+        this.hookClassName = hookClassName;
+        this.thread = Thread.currentThread();
+    }
+
+    @Override
+    public String get(int index) {
+        return getStack().get(index);
+    }
+
+    @Override
+    public int size() {
+        return getStack().size();
+    }
+
+    private synchronized List<String> getStack() {
+        if (stack == null) {
+            if (Thread.currentThread() != thread) {
+                stack = Collections.emptyList();
+            } else {
+                StackTraceElement[] trace = new Throwable().getStackTrace();
+                int start = StackTrace.getFilterStart(trace, findHookFrame(trace));
+                stack = StackTrace.toStringList(trace, start, StackTrace.getFilterEnd(trace, start), false);
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * @return hook 点类在栈中第一次出现的位置，没有找到时返回 0
+     */
+    private int findHookFrame(StackTraceElement[] trace) {
+        for (int i = 0; i < trace.length; i++) {
+            if (hookClassName.equals(trace[i].getClassName())) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+}
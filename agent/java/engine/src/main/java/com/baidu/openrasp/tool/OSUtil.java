@@ -18,6 +18,8 @@ package com.baidu.openrasp.tool;
 
 import com.baidu.openrasp.HookHandler;
 import com.baidu.openrasp.config.Config;
+import com.baidu.openrasp.messaging.ErrorType;
+import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.tool.model.NicModel;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -29,10 +31,84 @@ import java.security.MessageDigest;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedList;
+import java.util.List;
 
 public class OSUtil {
 
+    // 主机名和网卡信息的快照，由后台线程定时刷新，请求线程直接读取，避免阻塞在 DNS 解析和网卡枚举上
+    private static volatile String hostNameSnapshot;
+    private static volatile List<NicModel> ipAddressSnapshot;
+    private static volatile Thread hostInfoRefresher;
+
+    /**
+     * 启动后台线程刷新主机名和网卡信息，刷新间隔由 hostinfo.refresh_interval 配置
+     */
+    public static synchronized void startHostInfoRefresh() {
+        if (hostInfoRefresher != null) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (hostInfoRefresher == Thread.currentThread()) {
+                    try {
+                        refreshHostInfo();
+                        Thread.sleep(Config.getConfig().getHostInfoRefreshInterval() * 1000L);
+                    } catch (InterruptedException e) {
+                        break;
+                    } catch (Throwable t) {
+                        LogTool.warn(ErrorType.RUNTIME_ERROR, "failed to refresh host info: " + t.getMessage(), t);
+                    }
+                }
+            }
+        }, "openrasp-host-info");
+        thread.setDaemon(true);
+        hostInfoRefresher = thread;
+        thread.start();
+    }
+
+    public static synchronized void stopHostInfoRefresh() {
+        Thread thread = hostInfoRefresher;
+        hostInfoRefresher = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private static void refreshHostInfo() {
+        hostNameSnapshot = resolveHostName();
+        ipAddressSnapshot = Collections.unmodifiableList(resolveIpAddress());
+    }
+
+    /**
+     * 获取主机名，优先返回后台线程刷新的快照
+     *
+     * @return 主机名
+     */
     public static String getHostName() {
+        String hostName = hostNameSnapshot;
+        if (hostName == null) {
+            hostName = resolveHostName();
+            hostNameSnapshot = hostName;
+        }
+        return hostName;
+    }
+
+    /**
+     * 获取网卡的 IPv4 地址，优先返回后台线程刷新的快照，返回的列表不可修改
+     *
+     * @return 网卡名称和地址
+     */
+    public static List<NicModel> getIpAddress() {
+        List<NicModel> ipAddress = ipAddressSnapshot;
+        if (ipAddress == null) {
+            ipAddress = Collections.unmodifiableList(resolveIpAddress());
+            ipAddressSnapshot = ipAddress;
+        }
+        return ipAddress;
+    }
+
+    private static String resolveHostName() {
         InetAddress inetAddress;
         try {
             inetAddress = InetAddress.getLocalHost();
@@ -46,7 +122,7 @@ public class OSUtil {
         }
     }
 
-    public static LinkedList<NicModel> getIpAddress() {
+    private static LinkedList<NicModel> resolveIpAddress() {
         LinkedList<NicModel> ipList = new LinkedList<NicModel>();
         try {
             Enumeration allNetInterfaces = null;
@@ -162,13 +238,13 @@ public class OSUtil {
 
     private static String execReadToString() {
         try {
-            HookHandler.enableCmdHook.set(false);
+            HookHandler.disableCmdHook();
             InputStream in = Runtime.getRuntime().exec("hostname").getInputStream();
             return IOUtils.toString(in);
         } catch (Exception e) {
             return "im-not-resolvable";
         } finally {
-            HookHandler.enableCmdHook.set(true);
+            HookHandler.enableCmdHook();
         }
     }
 
@@ -20,8 +20,11 @@ import com.baidu.openrasp.messaging.ErrorType;
 import com.baidu.openrasp.messaging.LogTool;
 import org.apache.log4j.Logger;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by tyy on 3/27/17.
@@ -31,6 +34,14 @@ import java.lang.reflect.Method;
 public class Reflection {
     private static final Logger LOGGER = Logger.getLogger(Reflection.class.getName());
 
+    /**
+     * 以类为弱引用 key 缓存已经查找过的方法和字段
+     * 方法和字段引用着所属的类，因此使用弱引用保存，缓存不会阻止容器重新部署之后旧应用的类被卸载，
+     * 被回收之后下次调用时重新查找
+     */
+    private static final WeakClassCache<ConcurrentHashMap<String, WeakReference<AccessibleObject>>> memberCache =
+            new WeakClassCache<ConcurrentHashMap<String, WeakReference<AccessibleObject>>>();
+
     /**
      * 根据方法名调用对象的某一个方法
      *
@@ -66,8 +77,7 @@ public class Reflection {
      * @return 字段的值
      */
     public static Object getField(Object object, String fieldName) throws NoSuchFieldException, IllegalAccessException {
-        Field field = object.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
+        Field field = getDeclaredField(object.getClass(), fieldName);
         return field.get(object);
     }
 
@@ -81,8 +91,7 @@ public class Reflection {
     public static Object getSuperField(Object paramClass, String fieldName) {
         Object object = null;
         try {
-            Field field = paramClass.getClass().getSuperclass().getDeclaredField(fieldName);
-            field.setAccessible(true);
+            Field field = getDeclaredField(paramClass.getClass().getSuperclass(), fieldName);
             object = field.get(paramClass);
         } catch (Exception e) {
             LogTool.traceError(ErrorType.RUNTIME_ERROR, e.getMessage(), e);
@@ -111,10 +120,7 @@ public class Reflection {
 
     public static Object invokeMethod(Object object, Class clazz, String methodName, Class[] paramTypes, Object... parameters) {
         try {
-            Method method = clazz.getMethod(methodName, paramTypes);
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
+            Method method = getMethod(clazz, methodName, paramTypes);
             return method.invoke(object, parameters);
         } catch (Exception e) {
             String message = "Reflection call " + methodName + " failed: " + e.getMessage();
@@ -126,6 +132,67 @@ public class Reflection {
         }
     }
 
+    /**
+     * 从缓存中获取类的 public 方法，未命中时查找并缓存
+     *
+     * @param clazz      方法所属的类
+     * @param methodName 方法名称
+     * @param paramTypes 参数类型列表
+     * @return 已设置为可访问的方法
+     */
+    public static Method getMethod(Class clazz, String methodName, Class[] paramTypes) throws NoSuchMethodException {
+        StringBuilder signature = new StringBuilder(methodName).append('(');
+        if (paramTypes != null) {
+            for (Class paramType : paramTypes) {
+                signature.append(paramType.getName()).append(',');
+            }
+        }
+        String key = signature.append(')').toString();
+        ConcurrentHashMap<String, WeakReference<AccessibleObject>> members = getMembers(clazz);
+        Method method = (Method) getMember(members, key);
+        if (method == null) {
+            method = clazz.getMethod(methodName, paramTypes);
+            if (!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+            members.put(key, new WeakReference<AccessibleObject>(method));
+        }
+        return method;
+    }
+
+    /**
+     * 从缓存中获取类声明的字段，未命中时查找并缓存
+     *
+     * @param clazz     字段所属的类
+     * @param fieldName 字段名称
+     * @return 已设置为可访问的字段
+     */
+    public static Field getDeclaredField(Class clazz, String fieldName) throws NoSuchFieldException {
+        String key = "#" + fieldName;
+        ConcurrentHashMap<String, WeakReference<AccessibleObject>> members = getMembers(clazz);
+        Field field = (Field) getMember(members, key);
+        if (field == null) {
+            field = clazz.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            members.put(key, new WeakReference<AccessibleObject>(field));
+        }
+        return field;
+    }
+
+    private static ConcurrentHashMap<String, WeakReference<AccessibleObject>> getMembers(Class clazz) {
+        ConcurrentHashMap<String, WeakReference<AccessibleObject>> members = memberCache.get(clazz);
+        if (members == null) {
+            members = memberCache.putIfAbsent(clazz, new ConcurrentHashMap<String, WeakReference<AccessibleObject>>());
+        }
+        return members;
+    }
+
+    private static AccessibleObject getMember(ConcurrentHashMap<String, WeakReference<AccessibleObject>> members,
+                                              String key) {
+        WeakReference<AccessibleObject> reference = members.get(key);
+        return reference != null ? reference.get() : null;
+    }
+
     public static boolean isPrimitiveType(Object object) {
         try {
             return ((Class<?>) object.getClass().getField("TYPE").get(null)).isPrimitive();
@@ -18,8 +18,9 @@ package com.baidu.openrasp.tool;
 
 import com.baidu.openrasp.config.Config;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -28,6 +29,28 @@ import java.util.List;
  */
 public class StackTrace {
 
+    // JDK 8 及以前可以按下标生成单个栈帧，避免生成完整的栈，JDK 9 之后不可用时为 null
+    private static final Object javaLangAccess;
+    private static final Method getStackTraceDepth;
+    private static final Method getStackTraceElement;
+
+    static {
+        Object access = null;
+        Method depth = null;
+        Method element = null;
+        try {
+            access = Class.forName("sun.misc.SharedSecrets").getMethod("getJavaLangAccess").invoke(null);
+            Class accessClass = Class.forName("sun.misc.JavaLangAccess");
+            depth = accessClass.getMethod("getStackTraceDepth", Throwable.class);
+            element = accessClass.getMethod("getStackTraceElement", Throwable.class, int.class);
+        } catch (Throwable t) {
+            access = null;
+        }
+        javaLangAccess = access;
+        getStackTraceDepth = depth;
+        getStackTraceElement = element;
+    }
+
     /**
      * 获取栈信息
      *
@@ -61,23 +84,15 @@ public class StackTrace {
      * @return 原始栈
      */
     public static List<String> getStackTraceArray(boolean isFilter, boolean hasLineNumber) {
-        LinkedList<String> stackTrace = new LinkedList<String>();
-        Throwable throwable = new Throwable();
-        StackTraceElement[] stack = throwable.getStackTrace();
-        if (stack != null) {
-            if (isFilter) {
-                stack = filter(stack);
-            }
-            for (int i = 0; i < stack.length; i++) {
-                if (hasLineNumber) {
-                    stackTrace.add(stack[i].toString());
-                } else {
-                    stackTrace.add(stack[i].getClassName() + "." + stack[i].getMethodName());
-                }
-            }
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        if (stack == null) {
+            return new ArrayList<String>();
         }
-
-        return stackTrace;
+        if (isFilter) {
+            int start = getFilterStart(stack, 0);
+            return toStringList(stack, start, getFilterEnd(stack, start), hasLineNumber);
+        }
+        return toStringList(stack, 0, stack.length, hasLineNumber);
     }
 
     /**
@@ -89,15 +104,99 @@ public class StackTrace {
         return getStackTraceArray(true, false);
     }
 
+    /**
+     * hook 点参数获取延迟加载的原始栈，插件检测或者报警读取时才获取，检测提前返回时不会获取栈
+     *
+     * @param hookClass 调用该方法的 hook 点类，获取栈时从该类所在的栈帧开始过滤
+     * @return 原始栈
+     */
+    public static List<String> getLazyParamStackTraceArray(Class hookClass) {
+        return new LazyStackTrace(hookClass.getName());
+    }
+
+    /**
+     * 将栈转换为字符串列表
+     *
+     * @param trace         栈
+     * @param hasLineNumber 是否包含文件名和行号
+     * @return 栈信息列表
+     */
+    public static List<String> toStringList(StackTraceElement[] trace, boolean hasLineNumber) {
+        return toStringList(trace, 0, trace.length, hasLineNumber);
+    }
+
+    static List<String> toStringList(StackTraceElement[] trace, int start, int end, boolean hasLineNumber) {
+        ArrayList<String> stackTrace = new ArrayList<String>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+            if (hasLineNumber) {
+                stackTrace.add(trace[i].toString());
+            } else {
+                stackTrace.add(trace[i].getClassName() + "." + trace[i].getMethodName());
+            }
+        }
+        return stackTrace;
+    }
+
     //去掉包含rasp的堆栈
     public static StackTraceElement[] filter(StackTraceElement[] trace) {
-        int i = 0;
+        int start = getFilterStart(trace, 0);
+        return Arrays.copyOfRange(trace, start, getFilterEnd(trace, start));
+    }
+
+    /**
+     * @return 从 from 开始跳过插件本身调用栈之后的第一个栈帧位置
+     */
+    static int getFilterStart(StackTraceElement[] trace, int from) {
+        int i = from;
         // 去除插件本身调用栈
-        while (i < trace.length && (trace[i].getClassName().startsWith("com.baidu.openrasp")
-                || trace[i].getClassName().contains("reflect"))) {
+        while (i < trace.length && isRaspFrame(trace[i])) {
             i++;
         }
-        return Arrays.copyOfRange(trace, i, Math.min(i + Config.getConfig().getPluginMaxStack(), trace.length));
+        return i;
+    }
+
+    private static boolean isRaspFrame(StackTraceElement element) {
+        return element.getClassName().startsWith("com.baidu.openrasp") || element.getClassName().contains("reflect");
+    }
+
+    /**
+     * 获取调用方栈顶的若干层栈帧，过滤规则与 {@link #filter(StackTraceElement[])} 相同
+     * JDK 8 及以前只生成需要的栈帧，不生成完整的栈
+     *
+     * @param depth 最多获取的栈帧数量
+     * @return 过滤之后的栈帧
+     */
+    public static StackTraceElement[] getCallerStackTrace(int depth) {
+        Throwable throwable = new Throwable();
+        if (javaLangAccess != null) {
+            try {
+                int total = (Integer) getStackTraceDepth.invoke(javaLangAccess, throwable);
+                int start = 0;
+                StackTraceElement first = null;
+                while (start < total) {
+                    first = (StackTraceElement) getStackTraceElement.invoke(javaLangAccess, throwable, start);
+                    if (!isRaspFrame(first)) {
+                        break;
+                    }
+                    start++;
+                }
+                StackTraceElement[] result = new StackTraceElement[Math.max(Math.min(depth, total - start), 0)];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = i == 0 ? first
+                            : (StackTraceElement) getStackTraceElement.invoke(javaLangAccess, throwable, start + i);
+                }
+                return result;
+            } catch (Throwable t) {
+                // 调用失败时获取完整的栈
+            }
+        }
+        StackTraceElement[] trace = throwable.getStackTrace();
+        int start = getFilterStart(trace, 0);
+        return Arrays.copyOfRange(trace, start, Math.min(start + depth, trace.length));
+    }
+
+    static int getFilterEnd(StackTraceElement[] trace, int start) {
+        return Math.min(start + Config.getConfig().getPluginMaxStack(), trace.length);
     }
 
 }
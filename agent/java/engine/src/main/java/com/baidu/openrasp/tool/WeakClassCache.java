@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以类为弱引用 key 的线程安全缓存，按照类的引用判断 key 是否相等
+ *
+ * 值被强引用保存，不能直接或者间接地强引用 key 所对应的类或者它的类加载器，否则 key 永远不会被回收，
+ * 需要缓存引用了类的对象（例如反射得到的方法和字段）时，由调用方在值中使用弱引用保存
+ */
+public class WeakClassCache<V> {
+
+    private final ConcurrentHashMap<ClassKey, V> map = new ConcurrentHashMap<ClassKey, V>();
+    private final ReferenceQueue<Class> staleClasses = new ReferenceQueue<Class>();
+
+    /**
+     * @param clazz 类
+     * @return 缓存的值，不存在时返回 null
+     */
+    public V get(Class clazz) {
+        return map.get(new ClassKey(clazz, null));
+    }
+
+    /**
+     * 缓存类对应的值
+     *
+     * @param clazz 类
+     * @param value 值
+     * @return 已经存在的值，否则返回传入的值
+     */
+    public V putIfAbsent(Class clazz, V value) {
+        expungeStaleClasses();
+        V old = map.putIfAbsent(new ClassKey(clazz, staleClasses), value);
+        return old != null ? old : value;
+    }
+
+    private void expungeStaleClasses() {
+        Object stale;
+        while ((stale = staleClasses.poll()) != null) {
+            map.remove(stale);
+        }
+    }
+
+    /**
+     * 按照类的引用判断相等的弱引用 key
+     */
+    private static class ClassKey extends WeakReference<Class> {
+
+        private final int hash;
+
+        ClassKey(Class clazz, ReferenceQueue<Class> queue) {
+            super(clazz, queue);
+            this.hash = System.identityHashCode(clazz);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ClassKey)) {
+                return false;
+            }
+            Class clazz = get();
+            return clazz != null && clazz == ((ClassKey) obj).get();
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
+/**
+ * 以对象为弱引用 key 的 map，按照对象的引用判断 key 是否相等
+ *
+ * 不会调用 key 对象的 hashCode 和 equals 方法，适合 key 为第三方类实例的场景，非线程安全
+ */
+public class WeakIdentityMap<V> {
+
+    private final HashMap<Object, V> map = new HashMap<Object, V>();
+    private final ReferenceQueue<Object> staleKeys = new ReferenceQueue<Object>();
+    private final LookupKey lookupKey = new LookupKey();
+
+    /**
+     * @param key 对象
+     * @return 对象对应的值，不存在时返回 null
+     */
+    public V get(Object key) {
+        expungeStaleKeys();
+        lookupKey.set(key);
+        try {
+            return map.get(lookupKey);
+        } finally {
+            lookupKey.set(null);
+        }
+    }
+
+    /**
+     * @param key   对象
+     * @param value 值
+     */
+    public void put(Object key, V value) {
+        expungeStaleKeys();
+        map.put(new IdentityKey(key, staleKeys), value);
+    }
+
+    public int size() {
+        expungeStaleKeys();
+        return map.size();
+    }
+
+    private void expungeStaleKeys() {
+        Object stale;
+        while ((stale = staleKeys.poll()) != null) {
+            map.remove(stale);
+        }
+    }
+
+    /**
+     * 按照对象的引用判断相等的弱引用 key
+     */
+    private static class IdentityKey extends WeakReference<Object> {
+
+        private final int hash;
+
+        IdentityKey(Object key, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof IdentityKey)) {
+                return false;
+            }
+            Object key = get();
+            return key != null && key == ((IdentityKey) obj).get();
+        }
+    }
+
+    /**
+     * 查询时使用的 key，避免每次查询都创建弱引用
+     */
+    private static class LookupKey {
+
+        private Object key;
+        private int hash;
+
+        void set(Object key) {
+            this.key = key;
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IdentityKey && key != null && key == ((IdentityKey) obj).get();
+        }
+    }
+
+}
@@ -20,8 +20,13 @@ import com.baidu.openrasp.exceptions.AnnotationScannerException;
 import com.baidu.openrasp.messaging.ErrorType;
 import com.baidu.openrasp.messaging.LogTool;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileFilter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLDecoder;
@@ -38,6 +43,43 @@ import java.util.jar.JarFile;
  */
 public class AnnotationScanner {
 
+    /**
+     * 从编译期生成的索引中加载含有特定注解的类，不需要遍历 jar 包
+     *
+     * @param indexResource   索引文件的资源路径
+     * @param annotationClass 注解类
+     * @return 含有注解的类，索引不存在或者为空时返回 null，调用方应回退到 {@link #getClassWithAnnotation(String, Class)}
+     */
+    public static Set<Class> getIndexedClassWithAnnotation(String indexResource, Class annotationClass) {
+        InputStream inputStream = AnnotationScanner.class.getClassLoader().getResourceAsStream(indexResource);
+        if (inputStream == null) {
+            return null;
+        }
+        Set<Class> res = new LinkedHashSet<Class>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String className = line.trim();
+                if (className.length() == 0) {
+                    continue;
+                }
+                Class clazz = Class.forName(className);
+                if (clazz.getAnnotation(annotationClass) != null) {
+                    res.add(clazz);
+                }
+            }
+        } catch (Exception e) {
+            LogTool.warn(ErrorType.HOOK_ERROR, "load class from index " + indexResource + " failed: "
+                    + e.getMessage(), e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+        return res.isEmpty() ? null : res;
+    }
+
     public static Set<Class> getClassWithAnnotation(String packageName, Class annotationClass) {
         Set<Class> classes = new LinkedHashSet<Class>();
         Set<Class> res = new LinkedHashSet<Class>();
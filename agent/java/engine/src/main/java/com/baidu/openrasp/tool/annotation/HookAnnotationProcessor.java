@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool.annotation;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期收集含有 {@link HookAnnotation} 注解的类，写入 {@link #HOOK_INDEX_RESOURCE}，
+ * 运行时直接加载索引中的类，不需要遍历 jar 包中的所有类
+ *
+ * 由 engine 模块的 maven-compiler-plugin 配置调用，不通过 META-INF/services 注册，
+ * 避免 rasp-engine.jar 在业务代码编译时被当做注解处理器
+ * 增量编译时只有部分源文件参与编译，已有索引中仍然带有注解的类会被保留
+ * 该类需要先于其他代码单独编译，不能依赖除 {@link HookAnnotation} 以外的引擎代码
+ */
+@SupportedAnnotationTypes("com.baidu.openrasp.tool.annotation.HookAnnotation")
+public class HookAnnotationProcessor extends AbstractProcessor {
+
+    /**
+     * hook 点类名索引的资源路径，每行一个类名
+     */
+    public static final String HOOK_INDEX_RESOURCE = "META-INF/openrasp/hook-classes";
+
+    private final Set<String> classNames = new TreeSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(HookAnnotation.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                classNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        readExistingIndex();
+        if (classNames.isEmpty()) {
+            return;
+        }
+        Writer writer = null;
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+                    "", HOOK_INDEX_RESOURCE);
+            writer = new OutputStreamWriter(resource.openOutputStream(), "UTF-8");
+            for (String className : classNames) {
+                writer.write(className);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "failed to write hook index: " + e.getMessage());
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private void readExistingIndex() {
+        BufferedReader reader = null;
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT,
+                    "", HOOK_INDEX_RESOURCE);
+            reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String className = line.trim();
+                if (className.length() == 0 || classNames.contains(className)) {
+                    continue;
+                }
+                // 源文件被删除或者去掉注解的类不再保留
+                TypeElement element = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+                if (element != null && element.getAnnotation(HookAnnotation.class) != null) {
+                    classNames.add(className);
+                }
+            }
+        } catch (IOException e) {
+            // 首次编译时索引不存在
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+}
@@ -38,6 +38,9 @@ public class ApplicationModel {
 
     private static Map<String, String> systemEnvInfo;
 
+    // applicationInfo 的修改次数，用于判断缓存的序列化结果是否过期
+    private static volatile long modCount = 0;
+
     private static final String SERVER_TYPE_PATH = "/proc/self/cgroup";
 
     static {
@@ -67,6 +70,7 @@ public class ApplicationModel {
         version = (version == null ? "" : version);
         applicationInfo.put("server", serverName);
         applicationInfo.put("version", version);
+        modCount++;
         HookHandler.LOGGER.info("detect server: " + serverName + "/" + version);
     }
 
@@ -75,6 +79,7 @@ public class ApplicationModel {
         applicationInfo.put("extra", extra);
         extraVersion = (extraVersion == null ? "" : extraVersion);
         applicationInfo.put("extraVersion", extraVersion);
+        modCount++;
         HookHandler.LOGGER.info("detect extra server info: " + extra);
     }
 
@@ -82,6 +87,10 @@ public class ApplicationModel {
         return applicationInfo;
     }
 
+    public static long getModCount() {
+        return modCount;
+    }
+
     public static Map<String, String> getSystemEnv() {
         return systemEnvInfo;
     }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.transformer;
+
+import com.baidu.openrasp.hook.AbstractClassHook;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * hook 点的类名索引，用于在类加载时快速找出可能匹配的 hook 点
+ *
+ * 完整类名使用哈希表索引，前缀和后缀数量很少，按声明的字符串逐个比较，
+ * 没有声明类名的 hook 点对所有类都作为候选
+ * 索引创建后不可变，hook 点变化时整体重建
+ */
+class ClassHookIndex {
+
+    private final HashMap<String, AbstractClassHook[]> exactHooks = new HashMap<String, AbstractClassHook[]>();
+    private final String[] prefixes;
+    private final AbstractClassHook[][] prefixHooks;
+    private final String[] suffixes;
+    private final AbstractClassHook[][] suffixHooks;
+    private final AbstractClassHook[] unindexedHooks;
+
+    ClassHookIndex(Collection<AbstractClassHook> hooks) {
+        HashMap<String, List<AbstractClassHook>> exact = new HashMap<String, List<AbstractClassHook>>();
+        LinkedHashMap<String, List<AbstractClassHook>> prefix = new LinkedHashMap<String, List<AbstractClassHook>>();
+        LinkedHashMap<String, List<AbstractClassHook>> suffix = new LinkedHashMap<String, List<AbstractClassHook>>();
+        ArrayList<AbstractClassHook> unindexed = new ArrayList<AbstractClassHook>();
+        for (AbstractClassHook hook : hooks) {
+            String[] names = hook.getMatchedClassNames();
+            String[] hookPrefixes = hook.getMatchedClassPrefixes();
+            String[] hookSuffixes = hook.getMatchedClassSuffixes();
+            if (names == null && hookPrefixes == null && hookSuffixes == null) {
+                unindexed.add(hook);
+                continue;
+            }
+            addAll(exact, names, hook);
+            addAll(prefix, hookPrefixes, hook);
+            addAll(suffix, hookSuffixes, hook);
+        }
+        for (Map.Entry<String, List<AbstractClassHook>> entry : exact.entrySet()) {
+            exactHooks.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        this.prefixes = prefix.keySet().toArray(new String[prefix.size()]);
+        this.prefixHooks = toArrays(prefix.values());
+        this.suffixes = suffix.keySet().toArray(new String[suffix.size()]);
+        this.suffixHooks = toArrays(suffix.values());
+        this.unindexedHooks = toArray(unindexed);
+    }
+
+    /**
+     * 获取可能匹配该类的 hook 点，调用方仍需通过 {@link AbstractClassHook#isClassMatched(String)} 确认
+     *
+     * @param className 以 / 分隔的类名
+     * @return 候选 hook 点，没有候选时返回空列表
+     */
+    List<AbstractClassHook> getCandidates(String className) {
+        if (className == null) {
+            return Collections.emptyList();
+        }
+        List<AbstractClassHook> candidates = null;
+        AbstractClassHook[] exact = exactHooks.get(className);
+        if (exact != null) {
+            candidates = addCandidates(candidates, exact);
+        }
+        for (int i = 0; i < prefixes.length; i++) {
+            if (className.startsWith(prefixes[i])) {
+                candidates = addCandidates(candidates, prefixHooks[i]);
+            }
+        }
+        for (int i = 0; i < suffixes.length; i++) {
+            if (className.endsWith(suffixes[i])) {
+                candidates = addCandidates(candidates, suffixHooks[i]);
+            }
+        }
+        if (unindexedHooks.length > 0) {
+            candidates = addCandidates(candidates, unindexedHooks);
+        }
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        return candidates;
+    }
+
+    private static List<AbstractClassHook> addCandidates(List<AbstractClassHook> candidates, AbstractClassHook[] hooks) {
+        if (candidates == null) {
+            candidates = new ArrayList<AbstractClassHook>(hooks.length);
+        }
+        for (AbstractClassHook hook : hooks) {
+            // 同一个 hook 点可能同时命中类名和前后缀
+            if (!candidates.contains(hook)) {
+                candidates.add(hook);
+            }
+        }
+        return candidates;
+    }
+
+    private static void addAll(Map<String, List<AbstractClassHook>> index, String[] keys, AbstractClassHook hook) {
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            List<AbstractClassHook> hooks = index.get(key);
+            if (hooks == null) {
+                hooks = new ArrayList<AbstractClassHook>(1);
+                index.put(key, hooks);
+            }
+            if (!hooks.contains(hook)) {
+                hooks.add(hook);
+            }
+        }
+    }
+
+    private static AbstractClassHook[] toArray(List<AbstractClassHook> hooks) {
+        return hooks.toArray(new AbstractClassHook[hooks.size()]);
+    }
+
+    private static AbstractClassHook[][] toArrays(Collection<List<AbstractClassHook>> hooksList) {
+        AbstractClassHook[][] result = new AbstractClassHook[hooksList.size()][];
+        int i = 0;
+        for (List<AbstractClassHook> hooks : hooksList) {
+            result[i++] = toArray(hooks);
+        }
+        return result;
+    }
+
+}
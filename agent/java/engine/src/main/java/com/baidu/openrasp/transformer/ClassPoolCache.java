@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.transformer;
+
+import com.baidu.openrasp.ModuleLoader;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.LoaderClassPath;
+
+import java.util.WeakHashMap;
+
+/**
+ * 按类加载器缓存 ClassPool，同一个类加载器中的类在多次转换之间复用已经解析过的 CtClass
+ *
+ * 类加载器作为弱引用 key，ClassPool 中的 LoaderClassPath 同样只弱引用类加载器，缓存不会阻止类加载器被回收
+ * 每次转换之后检查 ClassPool 缓存的 CtClass 数量，超过上限时丢弃整个 ClassPool，下次使用时重新创建
+ */
+class ClassPoolCache {
+
+    // 单个 ClassPool 最多缓存的 CtClass 数量
+    private static final int MAX_CACHED_CLASSES = 2048;
+
+    private final WeakHashMap<ClassLoader, CachedClassPool> pools = new WeakHashMap<ClassLoader, CachedClassPool>();
+    // BootstrapClassLoader 对应的 ClassPool，WeakHashMap 不支持 null key
+    private CachedClassPool bootstrapPool;
+
+    private long hitCount = 0;
+    private long createCount = 0;
+    private long pruneCount = 0;
+
+    /**
+     * 获取类加载器对应的 ClassPool，不存在时创建
+     *
+     * @param loader 类加载器，为 null 代表 BootstrapClassLoader
+     * @return ClassPool
+     */
+    synchronized ClassPool get(ClassLoader loader) {
+        CachedClassPool classPool = loader == null ? bootstrapPool : pools.get(loader);
+        if (classPool != null) {
+            hitCount++;
+            return classPool;
+        }
+        classPool = new CachedClassPool(loader);
+        if (loader == null) {
+            bootstrapPool = classPool;
+        } else {
+            pools.put(loader, classPool);
+        }
+        createCount++;
+        return classPool;
+    }
+
+    /**
+     * 转换结束之后调用，ClassPool 缓存的 CtClass 超过上限时将其从缓存中移除
+     *
+     * @param loader    类加载器
+     * @param classPool 本次转换使用的 ClassPool
+     */
+    synchronized void prune(ClassLoader loader, ClassPool classPool) {
+        if (!(classPool instanceof CachedClassPool)
+                || ((CachedClassPool) classPool).getCachedClassCount() <= MAX_CACHED_CLASSES) {
+            return;
+        }
+        if (loader == null) {
+            if (bootstrapPool == classPool) {
+                bootstrapPool = null;
+                pruneCount++;
+            }
+        } else if (pools.get(loader) == classPool) {
+            pools.remove(loader);
+            pruneCount++;
+        }
+    }
+
+    synchronized void clear() {
+        pools.clear();
+        bootstrapPool = null;
+    }
+
+    /**
+     * 缓存的统计信息，用于日志输出
+     */
+    synchronized String getStatistics() {
+        return "class pool cache: " + (pools.size() + (bootstrapPool != null ? 1 : 0)) + " pools, "
+                + hitCount + " hits, " + createCount + " created, " + pruneCount + " pruned";
+    }
+
+    private static class CachedClassPool extends ClassPool {
+
+        CachedClassPool(ClassLoader loader) {
+            appendSystemPath();
+            appendClassPath(new ClassClassPath(ModuleLoader.class));
+            if (loader != null) {
+                appendClassPath(new LoaderClassPath(loader));
+            }
+        }
+
+        int getCachedClassCount() {
+            return classes.size();
+        }
+    }
+
+}
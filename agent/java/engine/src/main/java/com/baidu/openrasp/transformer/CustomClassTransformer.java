@@ -16,18 +16,17 @@
 
 package com.baidu.openrasp.transformer;
 
-import com.baidu.openrasp.ModuleLoader;
 import com.baidu.openrasp.config.Config;
 import com.baidu.openrasp.detector.ServerDetectorManager;
 import com.baidu.openrasp.hook.AbstractClassHook;
+import com.baidu.openrasp.hook.ClassMatch;
 import com.baidu.openrasp.messaging.ErrorType;
 import com.baidu.openrasp.messaging.LogTool;
 import com.baidu.openrasp.tool.annotation.AnnotationScanner;
 import com.baidu.openrasp.tool.annotation.HookAnnotation;
-import javassist.ClassClassPath;
+import com.baidu.openrasp.tool.annotation.HookAnnotationProcessor;
 import javassist.ClassPool;
 import javassist.CtClass;
-import javassist.LoaderClassPath;
 import org.apache.log4j.Logger;
 
 import java.io.ByteArrayInputStream;
@@ -37,11 +36,15 @@ import java.lang.instrument.IllegalClassFormatException;
 import java.lang.instrument.Instrumentation;
 import java.lang.ref.WeakReference;
 import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 自定义类字节码转换器，用于hook类德 方法
@@ -49,13 +52,33 @@ import java.util.concurrent.ConcurrentSkipListSet;
 public class CustomClassTransformer implements ClassFileTransformer {
     public static final Logger LOGGER = Logger.getLogger(CustomClassTransformer.class.getName());
     private static final String SCAN_ANNOTATION_PACKAGE = "com.baidu.openrasp.hook";
+    // 每次调用 retransformClasses 传入的类的数量
+    private static final int RETRANSFORM_BATCH_SIZE = 100;
+    // 每重新转换多少个类输出一次进度
+    private static final int RETRANSFORM_PROGRESS_INTERVAL = 2000;
+    private static final int RETRANSFORM_PRIORITY_NONE = 0;
+    private static final int RETRANSFORM_PRIORITY_NORMAL = 1;
+    private static final int RETRANSFORM_PRIORITY_NECESSARY = 2;
     private static HashSet<String> jspClassLoaderNames = new HashSet<String>();
     private static ConcurrentSkipListSet<String> necessaryHookType = new ConcurrentSkipListSet<String>();
+    private static final List<String> DUBBO_NECESSARY_HOOK_TYPES = Arrays.asList("dubbo_preRequest", "dubboRequest");
     private static ConcurrentSkipListSet<String> dubboNecessaryHookType = new ConcurrentSkipListSet<String>();
     public static ConcurrentHashMap<String, WeakReference<ClassLoader>> jspClassLoaderCache = new ConcurrentHashMap<String, WeakReference<ClassLoader>>();
+    private static final ClassPoolCache classPoolCache = new ClassPoolCache();
+    // 类转换的次数和累计耗时，用于统计 hook 对启动时间的影响
+    private static final AtomicLong transformCount = new AtomicLong();
+    private static final AtomicLong transformNanos = new AtomicLong();
+    private static final AtomicBoolean hookUpdatePending = new AtomicBoolean(false);
+
+    private static volatile CustomClassTransformer instance;
 
     private Instrumentation inst;
-    private HashSet<AbstractClassHook> hooks = new HashSet<AbstractClassHook>();
+    // 所有扫描到的 hook 点
+    private HashSet<AbstractClassHook> allHooks = new HashSet<AbstractClassHook>();
+    // 当前生效的 hook 点，hooks.ignore 配置变化时整体替换，transform 中无需加锁
+    private volatile Set<AbstractClassHook> hooks = new HashSet<AbstractClassHook>();
+    // 当前生效的 hook 点的类名索引，与 hooks 同时更新
+    private volatile ClassHookIndex hookIndex = new ClassHookIndex(hooks);
     private ServerDetectorManager serverDetector = ServerDetectorManager.getInstance();
 
     public static volatile boolean isNecessaryHookComplete = false;
@@ -66,60 +89,235 @@ public class CustomClassTransformer implements ClassFileTransformer {
         jspClassLoaderNames.add("com.caucho.loader.DynamicClassLoader");
         jspClassLoaderNames.add("com.ibm.ws.jsp.webcontainerext.JSPExtensionClassLoader");
         jspClassLoaderNames.add("weblogic.servlet.jsp.JspClassLoader");
-        dubboNecessaryHookType.add("dubbo_preRequest");
-        dubboNecessaryHookType.add("dubboRequest");
+        dubboNecessaryHookType.addAll(DUBBO_NECESSARY_HOOK_TYPES);
     }
 
     public CustomClassTransformer(Instrumentation inst) {
         this.inst = inst;
         inst.addTransformer(this, true);
         addAnnotationHook();
+        setHooks(getEnabledHooks(true));
+        instance = this;
     }
 
     public void release() {
+        instance = null;
         inst.removeTransformer(this);
         retransform();
+        classPoolCache.clear();
     }
 
+    /**
+     * 重新转换所有匹配 hook 点的已加载类，请求入口等必要 hook 点匹配的类优先转换，
+     * 使 isNecessaryHookComplete 尽早生效
+     */
     public void retransform() {
-        LinkedList<Class> retransformClasses = new LinkedList<Class>();
+        long start = System.currentTimeMillis();
+        ArrayList<Class> necessaryClasses = new ArrayList<Class>();
+        ArrayList<Class> otherClasses = new ArrayList<Class>();
+        Class[] loadedClasses = inst.getAllLoadedClasses();
+        for (Class clazz : loadedClasses) {
+            if (!isRetransformable(clazz)) {
+                continue;
+            }
+            int priority = getRetransformPriority(clazz.getName().replace('.', '/'));
+            if (priority == RETRANSFORM_PRIORITY_NECESSARY) {
+                necessaryClasses.add(clazz);
+            } else if (priority == RETRANSFORM_PRIORITY_NORMAL) {
+                otherClasses.add(clazz);
+            }
+        }
+        int total = necessaryClasses.size() + otherClasses.size();
+        LOGGER.info("start to retransform " + total + " of " + loadedClasses.length + " loaded classes, "
+                + necessaryClasses.size() + " for necessary hooks");
+        int failed = retransformClasses(necessaryClasses);
+        failed += retransformClasses(otherClasses);
+        LOGGER.info("retransform " + total + " classes in " + (System.currentTimeMillis() - start)
+                + " ms, " + failed + " failed");
+        LOGGER.info(getTransformStatistics());
+    }
+
+    /**
+     * 类在重新转换时的优先级
+     *
+     * @param className 以 / 分隔的类名
+     * @return {@link #RETRANSFORM_PRIORITY_NONE} 代表不需要重新转换
+     */
+    private int getRetransformPriority(String className) {
+        int priority = RETRANSFORM_PRIORITY_NONE;
+        for (final AbstractClassHook hook : hookIndex.getCandidates(className)) {
+            if (hook.isClassMatched(className)) {
+                if (hook.isNecessary() || DUBBO_NECESSARY_HOOK_TYPES.contains(hook.getType())) {
+                    return RETRANSFORM_PRIORITY_NECESSARY;
+                }
+                priority = RETRANSFORM_PRIORITY_NORMAL;
+            }
+        }
+        if (priority == RETRANSFORM_PRIORITY_NONE && serverDetector.isClassMatched(className)) {
+            priority = RETRANSFORM_PRIORITY_NORMAL;
+        }
+        return priority;
+    }
+
+    /**
+     * hooks.ignore 配置更新后调用，只对启用状态发生变化的 hook 点所匹配的已加载类重新转换，
+     * 新忽略的 hook 点会从类中移除，新启用的 hook 点会重新织入
+     *
+     * 重新转换在单独的线程中执行，调用方可能持有 Config 的锁，而类转换过程中也会读取配置；
+     * 重新转换开始之前的多次更新只会执行一次
+     */
+    public static void updateIgnoreHooks() {
+        final CustomClassTransformer transformer = instance;
+        if (transformer == null || !hookUpdatePending.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                hookUpdatePending.set(false);
+                try {
+                    transformer.updateHooks();
+                } catch (Throwable t) {
+                    LogTool.warn(ErrorType.HOOK_ERROR, "failed to update ignored hooks: " + t.getMessage(), t);
+                }
+            }
+        }, "openrasp-update-hooks");
+        thread.setDaemon(true);
+        try {
+            thread.start();
+        } catch (Throwable t) {
+            hookUpdatePending.set(false);
+            LogTool.warn(ErrorType.HOOK_ERROR, "failed to update ignored hooks: " + t.getMessage(), t);
+        }
+    }
+
+    private synchronized void updateHooks() {
+        Set<AbstractClassHook> oldHooks = hooks;
+        Set<AbstractClassHook> newHooks = getEnabledHooks(false);
+        HashSet<AbstractClassHook> changedHooks = new HashSet<AbstractClassHook>();
+        for (AbstractClassHook hook : allHooks) {
+            if (oldHooks.contains(hook) != newHooks.contains(hook)) {
+                changedHooks.add(hook);
+            }
+        }
+        if (changedHooks.isEmpty()) {
+            return;
+        }
+        setHooks(newHooks);
+        for (AbstractClassHook hook : changedHooks) {
+            LOGGER.info((newHooks.contains(hook) ? "enable" : "ignore") + " hook type " + hook.getType()
+                    + ", class " + hook.getClass().getName() + " at runtime");
+        }
+        ArrayList<Class> matchedClasses = new ArrayList<Class>();
         Class[] loadedClasses = inst.getAllLoadedClasses();
         for (Class clazz : loadedClasses) {
-            if (isClassMatched(clazz.getName().replace(".", "/"))) {
-                if (inst.isModifiableClass(clazz) && !clazz.getName().startsWith("java.lang.invoke.LambdaForm")) {
-                    try {
-                        // hook已经加载的类，或者是回滚已经加载的类
-                        inst.retransformClasses(clazz);
-                    } catch (Throwable t) {
-                        LogTool.error(ErrorType.HOOK_ERROR,
-                                "failed to retransform class " + clazz.getName() + ": " + t.getMessage(), t);
+            if (!isRetransformable(clazz)) {
+                continue;
+            }
+            String className = clazz.getName().replace(".", "/");
+            for (AbstractClassHook hook : changedHooks) {
+                if (hook.isClassMatched(className)) {
+                    matchedClasses.add(clazz);
+                    break;
+                }
+            }
+        }
+        retransformClasses(matchedClasses);
+    }
+
+    private boolean isRetransformable(Class clazz) {
+        return inst.isModifiableClass(clazz) && !clazz.getName().startsWith("java.lang.invoke.LambdaForm");
+    }
+
+    /**
+     * 分批重新转换类，一批中有类转换失败时逐个重试该批中的类
+     *
+     * @param classes 需要重新转换的类
+     * @return 转换失败的类的数量
+     */
+    private int retransformClasses(List<Class> classes) {
+        int failed = 0;
+        for (int i = 0; i < classes.size(); i += RETRANSFORM_BATCH_SIZE) {
+            List<Class> batch = classes.subList(i, Math.min(i + RETRANSFORM_BATCH_SIZE, classes.size()));
+            try {
+                // hook已经加载的类，或者是回滚已经加载的类
+                inst.retransformClasses(batch.toArray(new Class[batch.size()]));
+            } catch (Throwable t) {
+                for (Class clazz : batch) {
+                    if (!retransformClass(clazz)) {
+                        failed++;
                     }
                 }
             }
+            int done = i + batch.size();
+            if (done % RETRANSFORM_PROGRESS_INTERVAL < RETRANSFORM_BATCH_SIZE && done < classes.size()) {
+                LOGGER.info("retransformed " + done + "/" + classes.size() + " classes");
+            }
         }
+        return failed;
     }
 
-    private void addHook(AbstractClassHook hook, String className) {
-        if (hook.isNecessary()) {
-            necessaryHookType.add(hook.getType());
+    private boolean retransformClass(Class clazz) {
+        try {
+            inst.retransformClasses(clazz);
+            return true;
+        } catch (Throwable t) {
+            LogTool.error(ErrorType.HOOK_ERROR,
+                    "failed to retransform class " + clazz.getName() + ": " + t.getMessage(), t);
+            return false;
         }
+    }
+
+    private void setHooks(Set<AbstractClassHook> hooks) {
+        this.hookIndex = new ClassHookIndex(hooks);
+        this.hooks = hooks;
+    }
+
+    private Set<AbstractClassHook> getEnabledHooks(boolean printIgnoreLog) {
+        HashSet<AbstractClassHook> enabledHooks = new HashSet<AbstractClassHook>();
         String[] ignore = Config.getConfig().getIgnoreHooks();
-        for (String s : ignore) {
-            if (hook.couldIgnore() && (s.equals("all") || s.equals(hook.getType()))) {
-                LOGGER.info("ignore hook type " + hook.getType() + ", class " + className);
-                return;
+        for (AbstractClassHook hook : allHooks) {
+            if (isIgnored(hook, ignore)) {
+                if (printIgnoreLog) {
+                    LOGGER.info("ignore hook type " + hook.getType() + ", class " + hook.getClass().getName());
+                }
+            } else {
+                enabledHooks.add(hook);
             }
         }
-        hooks.add(hook);
+        return enabledHooks;
+    }
+
+    private boolean isIgnored(AbstractClassHook hook, String[] ignore) {
+        if (hook.couldIgnore()) {
+            for (String s : ignore) {
+                if (s.equals("all") || s.equals(hook.getType())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addHook(AbstractClassHook hook) {
+        if (hook.isNecessary()) {
+            necessaryHookType.add(hook.getType());
+        }
+        allHooks.add(hook);
     }
 
     private void addAnnotationHook() {
-        Set<Class> classesSet = AnnotationScanner.getClassWithAnnotation(SCAN_ANNOTATION_PACKAGE, HookAnnotation.class);
+        Set<Class> classesSet = AnnotationScanner.getIndexedClassWithAnnotation(
+                HookAnnotationProcessor.HOOK_INDEX_RESOURCE, HookAnnotation.class);
+        if (classesSet == null) {
+            // 没有编译期生成的索引，例如在 IDE 中直接运行，回退到扫描 jar 包
+            classesSet = AnnotationScanner.getClassWithAnnotation(SCAN_ANNOTATION_PACKAGE, HookAnnotation.class);
+        }
         for (Class clazz : classesSet) {
             try {
                 Object object = clazz.newInstance();
                 if (object instanceof AbstractClassHook) {
-                    addHook((AbstractClassHook) object, clazz.getName());
+                    addHook((AbstractClassHook) object);
                 }
             } catch (Exception e) {
                 LogTool.error(ErrorType.HOOK_ERROR, "add hook failed: " + e.getMessage(), e);
@@ -138,25 +336,41 @@ public class CustomClassTransformer implements ClassFileTransformer {
         if (loader != null && jspClassLoaderNames.contains(loader.getClass().getName())) {
             jspClassLoaderCache.put(className.replace("/", "."), new WeakReference<ClassLoader>(loader));
         }
-        for (final AbstractClassHook hook : hooks) {
-            if (hook.isClassMatched(className)) {
-                CtClass ctClass = null;
+        for (final AbstractClassHook hook : hookIndex.getCandidates(className)) {
+            ClassMatch match = hook.match(className, loader);
+            if (match != null) {
+                ClassPool classPool = null;
+                long start = System.nanoTime();
+                int originalSize = classfileBuffer.length;
                 try {
-                    ClassPool classPool = new ClassPool();
-                    addLoader(classPool, loader);
-                    ctClass = classPool.makeClass(new ByteArrayInputStream(classfileBuffer));
-                    if (loader == null) {
-                        hook.setLoadedByBootstrapLoader(true);
+                    classPool = getClassPool(loader);
+                    byte[] transformed;
+                    // 同一个类加载器的类可能在多个线程中同时加载，ClassPool 及其缓存的 CtClass 不是线程安全的，
+                    // 解析、织入、生成字节码和 detach 需要在同一把锁内完成
+                    synchronized (classPool) {
+                        CtClass ctClass = classPool.makeClass(new ByteArrayInputStream(classfileBuffer));
+                        try {
+                            transformed = hook.transformClass(ctClass, match);
+                        } finally {
+                            ctClass.detach();
+                        }
                     }
-                    classfileBuffer = hook.transformClass(ctClass);
-                    if (classfileBuffer != null) {
+                    if (transformed != null) {
+                        classfileBuffer = transformed;
                         checkNecessaryHookType(hook.getType());
                     }
                 } catch (IOException e) {
                     e.printStackTrace();
                 } finally {
-                    if (ctClass != null) {
-                        ctClass.detach();
+                    if (classPool != null) {
+                        classPoolCache.prune(loader, classPool);
+                    }
+                    long cost = System.nanoTime() - start;
+                    transformCount.incrementAndGet();
+                    transformNanos.addAndGet(cost);
+                    if (Config.getConfig().isDebugEnabled()) {
+                        LOGGER.info("transform class " + className + " with hook " + hook.getType()
+                                + " in " + cost / 1000 + " us, " + originalSize + " -> " + classfileBuffer.length + " bytes");
                     }
                 }
             }
@@ -183,7 +397,7 @@ public class CustomClassTransformer implements ClassFileTransformer {
 
 
     public boolean isClassMatched(String className) {
-        for (final AbstractClassHook hook : getHooks()) {
+        for (final AbstractClassHook hook : hookIndex.getCandidates(className)) {
             if (hook.isClassMatched(className)) {
                 return true;
             }
@@ -191,15 +405,27 @@ public class CustomClassTransformer implements ClassFileTransformer {
         return serverDetector.isClassMatched(className);
     }
 
-    private void addLoader(ClassPool classPool, ClassLoader loader) {
-        classPool.appendSystemPath();
-        classPool.appendClassPath(new ClassClassPath(ModuleLoader.class));
-        if (loader != null) {
-            classPool.appendClassPath(new LoaderClassPath(loader));
-        }
+    /**
+     * 获取用于解析目标类加载器中的类的 ClassPool，同一个类加载器共享缓存的 ClassPool，
+     * 调用方不能修改返回的 ClassPool 的类路径，需要额外类路径时以其为父 ClassPool 创建新的 ClassPool，
+     * 使用返回的 ClassPool（包括以其为父的 ClassPool）时需要对其加锁
+     *
+     * @param loader 目标类加载器，为 null 代表 BootstrapClassLoader
+     * @return ClassPool
+     */
+    public static ClassPool getClassPool(ClassLoader loader) {
+        return classPoolCache.get(loader);
+    }
+
+    /**
+     * 类转换的统计信息
+     */
+    public static String getTransformStatistics() {
+        return "transformed " + transformCount.get() + " classes in " + transformNanos.get() / 1000000 + " ms, "
+                + classPoolCache.getStatistics();
     }
 
-    public HashSet<AbstractClassHook> getHooks() {
+    public Set<AbstractClassHook> getHooks() {
         return hooks;
     }
 
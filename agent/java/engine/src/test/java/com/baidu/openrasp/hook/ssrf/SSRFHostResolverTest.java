@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.baidu.openrasp.hook.ssrf;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SSRFHostResolverTest {
+
+    private static final Executor REJECTING_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            throw new RejectedExecutionException();
+        }
+    };
+
+    private static class DelayedExecutor implements Executor {
+        private final long delayMillis;
+        private Thread thread;
+
+        DelayedExecutor(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(delayMillis);
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                    command.run();
+                }
+            };
+            thread.start();
+        }
+    }
+
+    @Test
+    public void testIpv4LiteralIsNotResolved() {
+        assertEquals(Collections.singletonList("10.0.0.1"), SSRFHostResolver.resolve("10.0.0.1", 0, REJECTING_EXECUTOR));
+        assertEquals(Collections.singletonList("0.0.0.0"), SSRFHostResolver.resolve("0.0.0.0", 0, REJECTING_EXECUTOR));
+        assertEquals(Collections.singletonList("255.255.255.255"),
+                SSRFHostResolver.resolve("255.255.255.255", 0, REJECTING_EXECUTOR));
+    }
+
+    @Test
+    public void testInvalidIpv4LiteralIsNotPassedThrough() {
+        for (String hostName : Arrays.asList("256.0.0.1", "1.2.3", "1.2.3.4.", "1..2.3")) {
+            assertFalse(hostName, SSRFHostResolver.resolve(hostName, 0, REJECTING_EXECUTOR).contains(hostName));
+        }
+    }
+
+    @Test
+    public void testLeadingZeroOctetIsNotPassedThrough() {
+        for (String hostName : Arrays.asList("010.0.0.1", "172.016.0.1", "0127.0.0.1")) {
+            List<String> ip = SSRFHostResolver.resolve(hostName, 0, REJECTING_EXECUTOR);
+            assertFalse(hostName, ip.contains(hostName));
+            for (String address : ip) {
+                assertFalse(address, address.matches(".*(^|\\.)0\\d.*"));
+            }
+        }
+    }
+
+    @Test
+    public void testIpv6IsNotResolved() {
+        assertTrue(SSRFHostResolver.resolve("::1", 0, REJECTING_EXECUTOR).isEmpty());
+        assertTrue(SSRFHostResolver.resolve("[::1]", 0, REJECTING_EXECUTOR).isEmpty());
+        assertTrue(SSRFHostResolver.resolve("::ffff:127.0.0.1", 0, REJECTING_EXECUTOR).isEmpty());
+    }
+
+    @Test
+    public void testZeroTimeoutWaitsForLookup() throws Exception {
+        DelayedExecutor executor = new DelayedExecutor(200);
+        assertEquals(Collections.singletonList("127.0.0.1"), SSRFHostResolver.resolve("127.1", 0, executor));
+        executor.thread.join();
+    }
+
+    @Test
+    public void testPositiveTimeoutReturnsEmptyAndCachesLateResult() throws Exception {
+        DelayedExecutor executor = new DelayedExecutor(500);
+        assertTrue(SSRFHostResolver.resolve("127.0.1", 20, executor).isEmpty());
+        executor.thread.join();
+        assertFalse(SSRFHostResolver.pendingLookups.containsKey("127.0.1"));
+        assertEquals(Collections.singletonList("127.0.0.1"),
+                SSRFHostResolver.resolve("127.0.1", 20, REJECTING_EXECUTOR));
+    }
+
+    @Test
+    public void testRejectedLookupResolvesInCallerThread() {
+        assertEquals(Collections.singletonList("10.0.0.1"), SSRFHostResolver.resolve("10.1", 20, REJECTING_EXECUTOR));
+        assertFalse(SSRFHostResolver.pendingLookups.containsKey("10.1"));
+    }
+
+}
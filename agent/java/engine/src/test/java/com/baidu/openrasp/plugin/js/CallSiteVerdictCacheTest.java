@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.baidu.openrasp.plugin.js;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CallSiteVerdictCacheTest {
+
+    @Test
+    public void testLiteralsAreReplaced() {
+        assertEquals("select * from t where a = ? and b = ? limit ?,?",
+                CallSiteVerdictCache.normalizeSql("select * from t where a = 'x' and b = 1.5 limit 10,20"));
+        assertEquals(CallSiteVerdictCache.normalizeSql("select * from t where a = 'abc' and b = 12"),
+                CallSiteVerdictCache.normalizeSql("select * from t where a = '' and b = 3"));
+    }
+
+    @Test
+    public void testQuoteDoubling() {
+        assertEquals("select * from t where a = ? and b = ?",
+                CallSiteVerdictCache.normalizeSql("select * from t where a = 'it''s' and b = ''''"));
+        assertEquals("select \"a\"\"b\" from t where c = ?",
+                CallSiteVerdictCache.normalizeSql("select \"a\"\"b\" from t where c = 'd'"));
+    }
+
+    @Test
+    public void testUnterminatedQuoteIsNotCached() {
+        assertNull(CallSiteVerdictCache.normalizeSql("select * from t where a = 'x"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select * from t where a = 'x''"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select \"a from t"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select `a from t"));
+    }
+
+    @Test
+    public void testBackslashIsNotCached() {
+        assertNull(CallSiteVerdictCache.normalizeSql("select * from t where a = 'x\\' or 1=1 -- '"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select * from t where a = \"x\\\" or 1=1\""));
+        assertNull(CallSiteVerdictCache.normalizeSql("select * from t where a = \\N"));
+    }
+
+    @Test
+    public void testQuotedIdentifiersAreKept() {
+        assertEquals("select \"it's\", `1` from `t` where a = ?",
+                CallSiteVerdictCache.normalizeSql("select \"it's\", `1` from `t` where a = 2"));
+    }
+
+    @Test
+    public void testCommentsWithoutQuotesAreKept() {
+        assertEquals("select a from t -- note 1\nwhere b = ?",
+                CallSiteVerdictCache.normalizeSql("select a from t -- note 1\nwhere b = 2"));
+        assertEquals("select a from t # note 1\nwhere b = ?",
+                CallSiteVerdictCache.normalizeSql("select a from t # note 1\nwhere b = 2"));
+        assertEquals("/* hint 1 */ select ?",
+                CallSiteVerdictCache.normalizeSql("/* hint 1 */ select 3"));
+        assertEquals("select a - ? from t",
+                CallSiteVerdictCache.normalizeSql("select a - 1 from t"));
+    }
+
+    @Test
+    public void testCommentsWithQuotesAreNotCached() {
+        assertNull(CallSiteVerdictCache.normalizeSql("select a from t where b = 1 -- it's"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select a from t where b = 1 # \"x"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select a from t where b = 1 -- `"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select /* it's */ a from t"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select a from t where b = '1' #'"));
+    }
+
+    @Test
+    public void testUnsupportedBlockCommentsAreNotCached() {
+        assertNull(CallSiteVerdictCache.normalizeSql("select /* a /* b */ c */ 1"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select 1 /* abc"));
+    }
+
+    @Test
+    public void testOracleQuoteIsNotCached() {
+        assertNull(CallSiteVerdictCache.normalizeSql("select q'[it's]' from dual"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select Q'{a}' from dual"));
+    }
+
+    @Test
+    public void testDollarQuoteIsNotCached() {
+        assertNull(CallSiteVerdictCache.normalizeSql("select $$it's$$"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select $tag$a$tag$"));
+        assertNull(CallSiteVerdictCache.normalizeSql("select * from t where a = $1"));
+    }
+
+    @Test
+    public void testNumbersNextToIdentifiers() {
+        assertEquals("select col1, t2.c3 from t2 where a=?",
+                CallSiteVerdictCache.normalizeSql("select col1, t2.c3 from t2 where a=3"));
+        assertEquals("select 0x1F, 1e5, 2abc from t",
+                CallSiteVerdictCache.normalizeSql("select 0x1F, 1e5, 2abc from t"));
+        assertEquals("select a_1 from t where b=?+?",
+                CallSiteVerdictCache.normalizeSql("select a_1 from t where b=10+0.25"));
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2019 Baidu Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.baidu.openrasp.tool;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ReflectionTest {
+
+    public static class Target {
+        private String name = "target";
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testCachedMethodIsReused() throws Exception {
+        Method first = Reflection.getMethod(Target.class, "getName", new Class[]{});
+        Method second = Reflection.getMethod(Target.class, "getName", new Class[]{});
+        assertSame(first, second);
+        assertEquals("target", Reflection.invokeStringMethod(new Target(), "getName", new Class[]{}));
+    }
+
+    @Test
+    public void testCachedMembersDoNotPinClassLoader() throws Exception {
+        WeakReference<ClassLoader> loader = loadAndCache();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(loader.get());
+    }
+
+    private WeakReference<ClassLoader> loadAndCache() throws Exception {
+        IsolatedClassLoader loader = new IsolatedClassLoader();
+        Class clazz = loader.define(Target.class.getName());
+        Object target = clazz.newInstance();
+        assertEquals("target", Reflection.invokeStringMethod(target, "getName", new Class[]{}));
+        assertEquals("target", Reflection.getDeclaredField(clazz, "name").get(target));
+        return new WeakReference<ClassLoader>(loader);
+    }
+
+    private static class IsolatedClassLoader extends ClassLoader {
+
+        IsolatedClassLoader() {
+            super(ReflectionTest.class.getClassLoader());
+        }
+
+        Class define(String className) throws Exception {
+            InputStream in = getParent().getResourceAsStream(className.replace('.', '/') + ".class");
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+                byte[] bytes = out.toByteArray();
+                return defineClass(className, bytes, 0, bytes.length);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+}